@@ -17,6 +17,7 @@
 
 package network.balanced.score.core.balancedoracle;
 
+import score.BranchDB;
 import score.Context;
 import score.DictDB;
 import score.VarDB;
@@ -24,8 +25,11 @@ import score.VarDB;
 import java.math.BigInteger;
 
 import network.balanced.score.core.balancedoracle.structs.PriceData;
+import network.balanced.score.core.balancedoracle.structs.PriceObservation;
 import network.balanced.score.lib.structs.PriceProtectionConfig;
 
+import static network.balanced.score.lib.utils.Constants.MICRO_SECONDS_IN_A_DAY;
+
 public class BalancedOracleConstants {
 
     private static final String ASSET_SYMBOL_PEG = "assetPegMap";
@@ -33,12 +37,19 @@ public class BalancedOracleConstants {
     private static final String PRICE_PROVIDER = "priceProvider";
     private static final String EXTERNAL_PRICE_DATA = "ExternalPriceData";
     private static final String EXTERNAL_PRICE_PROTECTION_CONFIG = "externalPriceProtectionConfig";
+    private static final String EXTERNAL_PRICE_OBSERVATIONS = "externalPriceObservations";
+    private static final String EXTERNAL_PRICE_OBSERVATION_COUNT = "externalPriceObservationCount";
 
     private static final String PRICE_UPDATE_THRESHOLD = "priceUpdateThreshold";
     private static final String PRICE_DIFF_THRESHOLD = "priceDiffThreshold";
 
     private static final String VERSION = "version";
 
+    public static final int PRICE_OBSERVATION_BUFFER_SIZE = 12;
+    // Minimum time between the starts of two buffered observations, so frequent updates can't flush the buffer
+    public static final BigInteger PRICE_OBSERVATION_MIN_INTERVAL =
+            MICRO_SECONDS_IN_A_DAY.divide(BigInteger.valueOf(24));
+
     public static final DictDB<String, String> assetPeg = Context.newDictDB(ASSET_SYMBOL_PEG, String.class);
 
     public static final DictDB<String, String> priceProvider = Context.newDictDB(PRICE_PROVIDER, String.class);
@@ -46,6 +57,10 @@ public class BalancedOracleConstants {
             PriceData.class);
     public static final DictDB<String, PriceProtectionConfig> externalPriceProtectionConfig = Context
             .newDictDB(EXTERNAL_PRICE_PROTECTION_CONFIG, PriceProtectionConfig.class);
+    public static final BranchDB<String, DictDB<Integer, PriceObservation>> externalPriceObservations = Context
+            .newBranchDB(EXTERNAL_PRICE_OBSERVATIONS, PriceObservation.class);
+    public static final DictDB<String, Integer> externalPriceObservationCount = Context
+            .newDictDB(EXTERNAL_PRICE_OBSERVATION_COUNT, Integer.class);
 
     public static final VarDB<BigInteger> lastUpdateThreshold = Context.newVarDB(PRICE_UPDATE_THRESHOLD,
             BigInteger.class);
@@ -154,6 +154,10 @@ public class BalancedOracleImpl implements BalancedOracle {
         ExternalOracle.updatePriceData(from, symbol, rate, timestamp);
     }
 
+    public void updatePriceDataBatch(String from, byte[] prices) {
+        ExternalOracle.updatePriceDataBatch(from, prices);
+    }
+
     @External
     public void addExternalPriceProxy(String symbol, String address, @Optional PriceProtectionParameter priceProtectionConfig) {
         onlyOwner();
@@ -176,6 +180,16 @@ public class BalancedOracleImpl implements BalancedOracle {
         return externalPriceProtectionConfig.get(symbol);
     }
 
+    @External(readonly = true)
+    public BigInteger getExternalPriceTWAP(String symbol) {
+        return ExternalOracle.getTWAP(symbol);
+    }
+
+    @External(readonly = true)
+    public BigInteger getExternalPriceMedian(String symbol) {
+        return ExternalOracle.getMedian(symbol);
+    }
+
     @External
     public void configurePythPriceId(String base, byte[] id) {
         onlyOwner();
@@ -1,6 +1,10 @@
 package network.balanced.score.core.balancedoracle;
 
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.PRICE_OBSERVATION_BUFFER_SIZE;
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.PRICE_OBSERVATION_MIN_INTERVAL;
 import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.externalPriceData;
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.externalPriceObservationCount;
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.externalPriceObservations;
 import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.externalPriceProtectionConfig;
 import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.priceProvider;
 import static network.balanced.score.lib.utils.Constants.WEEK_IN_MICRO_SECONDS;
@@ -8,9 +12,12 @@ import static network.balanced.score.lib.utils.Constants.WEEK_IN_MICRO_SECONDS;
 import java.math.BigInteger;
 
 import network.balanced.score.core.balancedoracle.structs.PriceData;
+import network.balanced.score.core.balancedoracle.structs.PriceObservation;
 import network.balanced.score.lib.structs.PriceProtectionConfig;
 import network.balanced.score.lib.structs.PriceProtectionParameter;
 import score.Context;
+import score.DictDB;
+import score.ObjectReader;
 import score.annotation.Optional;
 
 public class ExternalOracle {
@@ -28,6 +35,7 @@ public class ExternalOracle {
         if (currentPriceData == null) {
             Context.require(timestamp.compareTo(currentTime.subtract(WEEK_IN_MICRO_SECONDS)) >= 0, "First timestamp can't be older than a week old");
             externalPriceData.set(symbol, new PriceData(rate, timestamp));
+            recordObservation(symbol, rate, timestamp);
             return;
         }
 
@@ -38,6 +46,96 @@ public class ExternalOracle {
         }
 
         externalPriceData.set(symbol, new PriceData(rate, timestamp));
+        recordObservation(symbol, rate, timestamp);
+    }
+
+    /**
+     * Applies an RLP list of [symbol, rate, timestamp] entries in order. Every entry goes through the same checks as
+     * a single update, so one invalid entry reverts the whole batch.
+     */
+    public static void updatePriceDataBatch(String from, byte[] prices) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", prices);
+        reader.beginList();
+        int count = 0;
+        while (reader.hasNext()) {
+            reader.beginList();
+            String symbol = reader.readString();
+            BigInteger rate = reader.readBigInteger();
+            BigInteger timestamp = reader.readBigInteger();
+            reader.end();
+            updatePriceData(from, symbol, rate, timestamp);
+            count++;
+        }
+        reader.end();
+        Context.require(count > 0, "Price batch can't be empty");
+    }
+
+    // The latest observation is overwritten until it is PRICE_OBSERVATION_MIN_INTERVAL younger than the one before
+    // it, so the buffer always spans at least that interval per slot regardless of the update frequency
+    private static void recordObservation(String symbol, BigInteger rate, BigInteger timestamp) {
+        DictDB<Integer, PriceObservation> observations = externalPriceObservations.at(symbol);
+        int count = externalPriceObservationCount.getOrDefault(symbol, 0);
+        if (count == 0) {
+            observations.set(0, new PriceObservation(rate, timestamp, BigInteger.ZERO));
+            externalPriceObservationCount.set(symbol, 1);
+            return;
+        }
+
+        PriceObservation latest = observations.get((count - 1) % PRICE_OBSERVATION_BUFFER_SIZE);
+        PriceObservation observation = new PriceObservation(rate, timestamp, latest.cumulativeAt(timestamp));
+        if (count > 1) {
+            PriceObservation previous = observations.get((count - 2) % PRICE_OBSERVATION_BUFFER_SIZE);
+            if (latest.timestamp.subtract(previous.timestamp).compareTo(PRICE_OBSERVATION_MIN_INTERVAL) < 0) {
+                observations.set((count - 1) % PRICE_OBSERVATION_BUFFER_SIZE, observation);
+                return;
+            }
+        }
+
+        observations.set(count % PRICE_OBSERVATION_BUFFER_SIZE, observation);
+        externalPriceObservationCount.set(symbol, count + 1);
+    }
+
+    /**
+     * Time weighted average of the buffered observations, from the oldest one up to the current block time.
+     */
+    public static BigInteger getTWAP(String symbol) {
+        int count = externalPriceObservationCount.getOrDefault(symbol, 0);
+        Context.require(count > 0, "No price observations for " + symbol);
+        DictDB<Integer, PriceObservation> observations = externalPriceObservations.at(symbol);
+        PriceObservation latest = observations.get((count - 1) % PRICE_OBSERVATION_BUFFER_SIZE);
+        PriceObservation oldest = observations.get(count < PRICE_OBSERVATION_BUFFER_SIZE ? 0 :
+                count % PRICE_OBSERVATION_BUFFER_SIZE);
+
+        BigInteger currentTime = BigInteger.valueOf(Context.getBlockTimestamp());
+        BigInteger elapsed = currentTime.subtract(oldest.timestamp);
+        if (elapsed.signum() <= 0) {
+            return latest.rate;
+        }
+
+        return latest.cumulativeAt(currentTime).subtract(oldest.cumulative).divide(elapsed);
+    }
+
+    public static BigInteger getMedian(String symbol) {
+        int count = externalPriceObservationCount.getOrDefault(symbol, 0);
+        Context.require(count > 0, "No price observations for " + symbol);
+        DictDB<Integer, PriceObservation> observations = externalPriceObservations.at(symbol);
+        int size = Math.min(count, PRICE_OBSERVATION_BUFFER_SIZE);
+        BigInteger[] rates = new BigInteger[size];
+        for (int i = 0; i < size; i++) {
+            BigInteger rate = observations.get(i).rate;
+            int j = i;
+            while (j > 0 && rates[j - 1].compareTo(rate) > 0) {
+                rates[j] = rates[j - 1];
+                j--;
+            }
+            rates[j] = rate;
+        }
+
+        if (size % 2 == 1) {
+            return rates[size / 2];
+        }
+
+        return rates[size / 2 - 1].add(rates[size / 2]).divide(BigInteger.TWO);
     }
 
     public static void addExternalPriceProxy(String symbol, String address, @Optional PriceProtectionParameter priceProtectionConfig) {
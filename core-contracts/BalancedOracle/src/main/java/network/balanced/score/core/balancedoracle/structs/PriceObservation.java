@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.core.balancedoracle.structs;
+
+import score.ObjectReader;
+import score.ObjectWriter;
+
+import java.math.BigInteger;
+
+/**
+ * A single externally pushed price. cumulative is the sum of rate * time elapsed (in microseconds) over all
+ * observations before this one, so the time weighted average between any two observations is the difference of their
+ * cumulatives divided by the time between them.
+ */
+public class PriceObservation {
+    public BigInteger rate;
+    public BigInteger timestamp;
+    public BigInteger cumulative;
+
+    private PriceObservation() {
+    }
+
+    public PriceObservation(BigInteger rate, BigInteger timestamp, BigInteger cumulative) {
+        this.rate = rate;
+        this.timestamp = timestamp;
+        this.cumulative = cumulative;
+    }
+
+    public BigInteger cumulativeAt(BigInteger time) {
+        return cumulative.add(rate.multiply(time.subtract(timestamp)));
+    }
+
+    public static void writeObject(ObjectWriter writer, PriceObservation obj) {
+        writer.beginList(3);
+        writer.write(obj.rate);
+        writer.write(obj.timestamp);
+        writer.write(obj.cumulative);
+        writer.end();
+    }
+
+    public static PriceObservation readObject(ObjectReader reader) {
+        PriceObservation obj = new PriceObservation();
+        reader.beginList();
+        obj.rate = reader.readBigInteger();
+        obj.timestamp = reader.readBigInteger();
+        obj.cumulative = reader.readBigInteger();
+        reader.end();
+        return obj;
+    }
+}
@@ -21,10 +21,14 @@ import network.balanced.score.lib.structs.PriceProtectionParameter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import score.ByteArrayObjectWriter;
+import score.Context;
 
 import java.math.BigInteger;
 import java.util.Map;
 
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.PRICE_OBSERVATION_BUFFER_SIZE;
+import static network.balanced.score.core.balancedoracle.BalancedOracleConstants.PRICE_OBSERVATION_MIN_INTERVAL;
 import static network.balanced.score.lib.utils.Constants.MICRO_SECONDS_IN_A_DAY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -195,6 +199,67 @@ class BalancedOracleTestExternal extends BalancedOracleTestBase {
         verifyPrice(symbol, newRate, timestamp);
     }
 
+    @Test
+    void externalPriceProxy_twapAndMedian() {
+        // Arrange
+        balancedOracle.invoke(owner, "addExternalPriceProxy", symbol, externalPriceProxy,
+                newPriceProtectionParameter(false, BigInteger.ZERO, BigInteger.ZERO));
+        expectErrorMessage(() -> balancedOracle.call("getExternalPriceTWAP", symbol), "No price observations for");
+
+        BigInteger rate1 = BigInteger.TEN.pow(18);
+        BigInteger rate2 = rate1.multiply(BigInteger.valueOf(3));
+        BigInteger rate3 = rate1.multiply(BigInteger.TWO);
+        BigInteger t0 = BigInteger.valueOf(sm.getBlock().getTimestamp());
+        BigInteger t1 = t0.add(MICRO_SECONDS_IN_A_DAY);
+        BigInteger t2 = t1.add(MICRO_SECONDS_IN_A_DAY);
+
+        // Act
+        updatePrice(externalPriceProxy, symbol, rate1, t0);
+        sm.getBlock().increase(BLOCKS_IN_A_DAY);
+        updatePrice(externalPriceProxy, symbol, rate2, t1);
+        sm.getBlock().increase(BLOCKS_IN_A_DAY);
+        updatePrice(externalPriceProxy, symbol, rate3, t2);
+
+        // Assert
+        BigInteger now = BigInteger.valueOf(sm.getBlock().getTimestamp());
+        BigInteger expectedTWAP = rate1.multiply(MICRO_SECONDS_IN_A_DAY)
+                .add(rate2.multiply(MICRO_SECONDS_IN_A_DAY))
+                .add(rate3.multiply(now.subtract(t2)))
+                .divide(now.subtract(t0));
+        assertEquals(expectedTWAP, balancedOracle.call("getExternalPriceTWAP", symbol));
+        assertEquals(rate3, balancedOracle.call("getExternalPriceMedian", symbol));
+
+        // Act: updates closer together than the minimum interval only replace the latest observation
+        BigInteger rate4 = rate1.multiply(BigInteger.valueOf(5));
+        for (int i = 1; i <= PRICE_OBSERVATION_BUFFER_SIZE; i++) {
+            updatePrice(externalPriceProxy, symbol, rate4, t2.add(BigInteger.valueOf(i)));
+        }
+
+        // Assert
+        now = BigInteger.valueOf(sm.getBlock().getTimestamp());
+        expectedTWAP = rate1.multiply(MICRO_SECONDS_IN_A_DAY)
+                .add(rate2.multiply(MICRO_SECONDS_IN_A_DAY))
+                .add(rate3)
+                .add(rate4.multiply(now.subtract(t2).subtract(BigInteger.ONE)))
+                .divide(now.subtract(t0));
+        assertEquals(expectedTWAP, balancedOracle.call("getExternalPriceTWAP", symbol));
+        assertEquals(rate3.add(rate2).divide(BigInteger.TWO), balancedOracle.call("getExternalPriceMedian", symbol));
+        verifyPrice(symbol, rate4, t2.add(BigInteger.valueOf(PRICE_OBSERVATION_BUFFER_SIZE)));
+
+        // Act: overwrite the whole buffer with spaced updates
+        BigInteger rate5 = rate1.multiply(BigInteger.valueOf(4));
+        BigInteger t3 = t2.add(BigInteger.valueOf(PRICE_OBSERVATION_BUFFER_SIZE));
+        sm.getBlock().increase(BLOCKS_IN_A_DAY);
+        for (int i = 1; i <= PRICE_OBSERVATION_BUFFER_SIZE; i++) {
+            updatePrice(externalPriceProxy, symbol, rate5,
+                    t3.add(PRICE_OBSERVATION_MIN_INTERVAL.multiply(BigInteger.valueOf(i))));
+        }
+
+        // Assert
+        assertEquals(rate5, balancedOracle.call("getExternalPriceTWAP", symbol));
+        assertEquals(rate5, balancedOracle.call("getExternalPriceMedian", symbol));
+    }
+
     @Test
     void updatePermissions() {
         assertOnlyCallableBy(mockBalanced.xCall.getAddress(), balancedOracle, "handleCallMessage", "", new byte[0],
@@ -210,6 +275,22 @@ class BalancedOracleTestExternal extends BalancedOracleTestBase {
         balancedOracle.invoke(mockBalanced.xCall.account, "handleCallMessage", oracle, msg, (Object) new String[0]);
     }
 
+    protected void updatePrices(String oracle, String[] symbols, BigInteger[] rates, BigInteger[] timestamps) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(symbols.length);
+        for (int i = 0; i < symbols.length; i++) {
+            writer.beginList(3);
+            writer.write(symbols[i]);
+            writer.write(rates[i]);
+            writer.write(timestamps[i]);
+            writer.end();
+        }
+        writer.end();
+
+        byte[] msg = BalancedOracleMessages.updatePriceDataBatch(writer.toByteArray());
+        balancedOracle.invoke(mockBalanced.xCall.account, "handleCallMessage", oracle, msg, (Object) new String[0]);
+    }
+
     @SuppressWarnings("unchecked")
     protected void verifyPrice(String symbol, BigInteger rate, BigInteger timestamp) {
         Map<String, BigInteger> priceData = (Map<String, BigInteger>) balancedOracle.call("getPriceDataInUSD", symbol);
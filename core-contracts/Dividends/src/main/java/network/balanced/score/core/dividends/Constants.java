@@ -29,8 +29,11 @@ public class Constants {
     static final String BBALN_SUPPLY = "boosted_baln_supply";
     static final String BBALN_USER_WEIGHT = "boosted_user_weight";
     static final String BBALN_TOTAL_WEIGHT = "boosted_running_total";
+    static final String USER_DIVIDENDS = "user_dividends";
 
     static final String ACCEPTED_TOKENS = "accepted_tokens";
+    static final String ACCEPTED_TOKEN_SYMBOLS = "accepted_token_symbols";
+    static final String ACCEPTED_TOKEN_DECIMALS = "accepted_token_decimals";
     public static final String AMOUNT_TO_DISTRIBUTE = "amount_to_distribute";
     public static final String AMOUNT_BEING_DISTRIBUTED = "amount_being_distributed";
     public static final String BALN_DIST_INDEX = "baln_dist_index";
@@ -68,6 +71,11 @@ public class Constants {
 
     static final String ACCRUED_DIVIDENDS = "accrued_dividends";
 
+    static final String LEGACY_TOTAL_BALN = "legacy_total_baln";
+    static final String LEGACY_POOL_BALN = "legacy_pool_baln";
+    static final String LEGACY_POOL_LP = "legacy_pool_lp";
+    static final String LEGACY_FOLD_DAY = "legacy_fold_day";
+
     static final BigInteger TWO_FIFTY_SIX = BigInteger.valueOf(256);
 
 
@@ -16,6 +16,7 @@
 
 package network.balanced.score.core.dividends;
 
+import network.balanced.score.core.dividends.structs.UserDividends;
 import network.balanced.score.lib.interfaces.Dividends;
 import network.balanced.score.lib.structs.DistributionPercentage;
 import network.balanced.score.lib.structs.PrepDelegations;
@@ -48,6 +49,11 @@ public class DividendsImpl implements Dividends {
     private static final VarDB<Address> governance = Context.newVarDB(GOVERNANCE, Address.class);
 
     private static final ArrayDB<Address> acceptedTokens = Context.newArrayDB(ACCEPTED_TOKENS, Address.class);
+    // Metadata cached when governance adds a token, so queries do not call out to the token contracts
+    private static final DictDB<Address, String> acceptedTokenSymbols = Context.newDictDB(ACCEPTED_TOKEN_SYMBOLS,
+            String.class);
+    private static final DictDB<Address, BigInteger> acceptedTokenDecimals = Context.newDictDB(ACCEPTED_TOKEN_DECIMALS,
+            BigInteger.class);
     public static final VarDB<BigInteger> snapshotId = Context.newVarDB(SNAPSHOT_ID, BigInteger.class);
     private static final BranchDB<BigInteger, DictDB<String, BigInteger>> dailyFees = Context.newBranchDB(DAILY_FEES,
             BigInteger.class);
@@ -70,6 +76,16 @@ public class DividendsImpl implements Dividends {
     private static final BranchDB<Address, DictDB<Address, BigInteger>> accruedDividends =
             Context.newBranchDB(ACCRUED_DIVIDENDS, BigInteger.class);
 
+    // day -> total BALN the legacy dividends of that day were split over, set once the day is folded
+    private static final DictDB<BigInteger, BigInteger> legacyTotalBaln = Context.newDictDB(LEGACY_TOTAL_BALN,
+            BigInteger.class);
+    // pool id -> day -> pool totals as seen by the legacy dividends fold
+    private static final BranchDB<BigInteger, DictDB<BigInteger, BigInteger>> legacyPoolBaln =
+            Context.newBranchDB(LEGACY_POOL_BALN, BigInteger.class);
+    private static final BranchDB<BigInteger, DictDB<BigInteger, BigInteger>> legacyPoolLp =
+            Context.newBranchDB(LEGACY_POOL_LP, BigInteger.class);
+    private static final VarDB<BigInteger> legacyFoldDay = Context.newVarDB(LEGACY_FOLD_DAY, BigInteger.class);
+
     private final VarDB<String> currentVersion = Context.newVarDB(VERSION, String.class);
 
     public DividendsImpl(@Optional Address _governance) {
@@ -140,7 +156,7 @@ public class DividendsImpl implements Dividends {
             Address tokenAddress = acceptedTokens.get(i);
             BigInteger balance = (BigInteger) Context.call(tokenAddress, "balanceOf", address);
             if (balance.compareTo(BigInteger.ZERO) > 0) {
-                balances.put(Context.call(String.class, tokenAddress, "symbol"), balance);
+                balances.put(getTokenSymbol(tokenAddress), balance);
             }
         }
 
@@ -176,6 +192,21 @@ public class DividendsImpl implements Dividends {
         return acceptedTokenList;
     }
 
+    @External(readonly = true)
+    public Map<String, Map<String, Object>> getAcceptedTokensInfo() {
+        Map<String, Map<String, Object>> tokensInfo = new HashMap<>();
+        int numberOfAcceptedTokens = acceptedTokens.size();
+        for (int i = 0; i < numberOfAcceptedTokens; i++) {
+            Address token = acceptedTokens.get(i);
+            Map<String, Object> info = new HashMap<>();
+            info.put("symbol", getTokenSymbol(token));
+            info.put("decimals", getTokenDecimals(token));
+            tokensInfo.put(token.toString(), info);
+        }
+
+        return tokensInfo;
+    }
+
     @External
     public void addAcceptedTokens(Address _token) {
         onlyGovernance();
@@ -184,12 +215,18 @@ public class DividendsImpl implements Dividends {
         if (!arrayDbContains(acceptedTokens, _token)) {
             acceptedTokens.add(_token);
         }
+
+        // Re-adding an accepted token refreshes its cached metadata
+        acceptedTokenSymbols.set(_token, Context.call(String.class, _token, "symbol"));
+        acceptedTokenDecimals.set(_token, Context.call(BigInteger.class, _token, "decimals"));
     }
 
     @External
     public void removeAcceptedTokens(Address _token) {
         onlyGovernance();
         removeFromArraydb(_token, acceptedTokens);
+        acceptedTokenSymbols.set(_token, null);
+        acceptedTokenDecimals.set(_token, null);
     }
 
     @External(readonly = true)
@@ -335,17 +372,16 @@ public class DividendsImpl implements Dividends {
         }
     }
 
-    protected BigInteger calculateAccruedDividends(Address token, Address user, boolean readonly) {
+    protected BigInteger calculateAccruedDividends(Address token, Address user, UserDividends data,
+                                                   BigInteger bbalnBalance, boolean readonly) {
         BigInteger accruedDividends = BigInteger.ZERO;
-        BigInteger balance = getBalnBalance(user);
-        BigInteger bbalnBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
         if (!DividendsTracker.balnRewardsClaimed(user, token)) {
+            BigInteger balance = getBalnBalance(user);
             accruedDividends = DividendsTracker.updateUserData
                     (token, user, balance, readonly);
         }
 
-        accruedDividends = accruedDividends.add(DividendsTracker.updateBoostedUserData(token,
-                user, bbalnBalance, readonly));
+        accruedDividends = accruedDividends.add(DividendsTracker.updateBoostedUserData(data, token, bbalnBalance));
 
         return accruedDividends;
     }
@@ -354,12 +390,12 @@ public class DividendsImpl implements Dividends {
     public Map<String, BigInteger> getUnclaimedDividends(Address user) {
         Map<String, BigInteger> totalDividends = new HashMap<>();
 
-        int size = acceptedTokens.size();
-        DictDB<Address, BigInteger> userAccruedDividends = accruedDividends.at(user);
-        for (int i = 0; i < size; i++) {
-            Address token = acceptedTokens.get(i);
-            BigInteger accruedDividends = calculateAccruedDividends(token, user, true);
-            BigInteger prevAccruedDividends = userAccruedDividends.getOrDefault(token, BigInteger.ZERO);
+        List<Address> tokens = getAcceptedTokens();
+        UserDividends data = loadUserDividends(user, tokens);
+        BigInteger bbalnBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
+        for (Address token : tokens) {
+            BigInteger prevAccruedDividends = data.getAccrued(token);
+            BigInteger accruedDividends = calculateAccruedDividends(token, user, data, bbalnBalance, true);
             BigInteger totalDivs = accruedDividends.add(prevAccruedDividends);
             totalDividends.put(token.toString(), totalDivs);
         }
@@ -370,29 +406,38 @@ public class DividendsImpl implements Dividends {
     @External
     public void claimDividends() {
         checkStatus();
-        routeFees();
         Address user = Context.getCaller();
 
-        int size = acceptedTokens.size();
-        DictDB<Address, BigInteger> userAccruedDividends = accruedDividends.at(user);
+        List<Address> tokens = getAcceptedTokens();
+        UserDividends data = loadUserDividends(user, tokens);
+        BigInteger prevBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
         Map<String, BigInteger> nonZeroTokens = new HashMap<>();
-        for (int i = 0; i < size; i++) {
-            Address token = acceptedTokens.get(i);
-            BigInteger accruedDividends = calculateAccruedDividends(token, user, false);
-            BigInteger prevAccruedDividends = userAccruedDividends.getOrDefault(token, BigInteger.ZERO);
+        Map<Address, BigInteger> payouts = new HashMap<>();
+        for (Address token : tokens) {
+            BigInteger prevAccruedDividends = data.getAccrued(token);
+            BigInteger accruedDividends = calculateAccruedDividends(token, user, data, prevBalance, false);
             BigInteger totalDivs = accruedDividends.add(prevAccruedDividends);
             if (totalDivs.signum() > 0) {
                 nonZeroTokens.put(token.toString(), totalDivs);
-                userAccruedDividends.set(token, null);
+                payouts.put(token, totalDivs);
+                data.setAccrued(token, BigInteger.ZERO);
+            }
+        }
+
+        saveUserDividends(user, data, tokens);
+        for (Address token : tokens) {
+            BigInteger totalDivs = payouts.get(token);
+            if (totalDivs != null) {
                 sendToken(user, totalDivs, token, "User dividends");
             }
         }
+
         if (nonZeroTokens.size() > 0) {
             Claimed(user, BigInteger.ZERO, BigInteger.ZERO, dividendsMapToJson(nonZeroTokens));
         }
 
         BigInteger bbalnBalance = getBBalnBalance(user);
-        BigInteger prevBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
+        prevBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
         userBalance.set(user, bbalnBalance);
         DividendsTracker.setBBalnTotalSupply(getBoostedTotalSupply().add(bbalnBalance).subtract(prevBalance));
     }
@@ -466,14 +511,19 @@ public class DividendsImpl implements Dividends {
             totalDividends = addDividends(totalDividends, dividends, acceptedTokensList);
         }
 
-        DictDB<Address, BigInteger> userAccruedDividends = accruedDividends.at(user);
+        UserDividends data = loadUserDividends(user, acceptedTokensList);
+        boolean updated = false;
         for (Address token : acceptedTokensList) {
             if (totalDividends.containsKey(token.toString()) && totalDividends.get(token.toString()).signum() > 0) {
                 BigInteger accruedDividends = totalDividends.get(token.toString());
-                BigInteger prevAccruedDividends = userAccruedDividends.getOrDefault(token, BigInteger.ZERO);
-                userAccruedDividends.set(token, accruedDividends.add(prevAccruedDividends));
+                data.setAccrued(token, accruedDividends.add(data.getAccrued(token)));
+                updated = true;
             }
         }
+
+        if (updated) {
+            saveUserDividends(user, data, acceptedTokensList);
+        }
     }
 
     @External
@@ -499,22 +549,58 @@ public class DividendsImpl implements Dividends {
     public void updateBalnStake(Address user, BigInteger prevStakedBalance, BigInteger currentTotalSupply) {
         checkStatus();
         only(getBaln());
-        int size = acceptedTokens.size();
-        DictDB<Address, BigInteger> userAccruedDividends = accruedDividends.at(user);
-        for (int i = 0; i < size; i++) {
-            Address token = acceptedTokens.get(i);
+        List<Address> tokens = getAcceptedTokens();
+        UserDividends data = null;
+        for (Address token : tokens) {
             if (DividendsTracker.balnRewardsClaimed(user, token)) {
+                if (data != null) {
+                    saveUserDividends(user, data, tokens);
+                }
+
                 return;
             }
 
+            if (data == null) {
+                data = loadUserDividends(user, tokens);
+            }
+
             BigInteger accruedDividends = DividendsTracker.updateUserData(token, user, prevStakedBalance, false);
-            BigInteger prevAccruedDividends = userAccruedDividends.getOrDefault(token, BigInteger.ZERO);
-            userAccruedDividends.set(token, prevAccruedDividends.add(accruedDividends));
+            data.setAccrued(token, data.getAccrued(token).add(accruedDividends));
+        }
+
+        if (data != null) {
+            saveUserDividends(user, data, tokens);
         }
 
         DividendsTracker.setTotalSupply(currentTotalSupply);
     }
 
+    @External
+    public void foldLegacyDividends(int maxDays) {
+        checkStatus();
+        Context.require(maxDays > 0, TAG + ": maxDays has to be positive");
+        BigInteger day = getLegacyDividendsFoldDay();
+        BigInteger end = snapshotId.getOrDefault(BigInteger.ZERO);
+        if (day.compareTo(end) >= 0) {
+            return;
+        }
+
+        Address baln = getBaln();
+        Address dex = getDex();
+        BigInteger dividendsSwitchingDay = dividendsEnabledToStakedBalnDay.getOrDefault(BigInteger.ZERO);
+        for (int i = 0; i < maxDays && day.compareTo(end) < 0; i++) {
+            foldLegacyDay(day, baln, dex, dividendsSwitchingDay);
+            day = day.add(BigInteger.ONE);
+        }
+
+        legacyFoldDay.set(day);
+    }
+
+    @External(readonly = true)
+    public BigInteger getLegacyDividendsFoldDay() {
+        return legacyFoldDay.getOrDefault(BigInteger.ONE);
+    }
+
     @External(readonly = true)
     public Map<String, BigInteger> getUserDividends(Address _account, @Optional int _start, @Optional int _end) {
         int[] value = checkStartEnd(_start, _end);
@@ -629,15 +715,83 @@ public class DividendsImpl implements Dividends {
         DividendsTracker.setBBalnTotalSupply(getBoostedTotalSupply().add(bBalnBalance).subtract(prevBalance));
     }
 
+    @External
+    public void onBalanceUpdateBatch(Address[] users, BigInteger[] bBalnBalances) {
+        checkStatus();
+        only(getBoostedBaln());
+        Context.require(users.length == bBalnBalances.length, TAG + ": Users and balances must have the same length");
+        BigInteger totalSupply = getBoostedTotalSupply();
+        for (int i = 0; i < users.length; i++) {
+            Address user = users[i];
+            BigInteger balance = bBalnBalances[i];
+            BigInteger prevBalance = userBalance.getOrDefault(user, BigInteger.ZERO);
+            if (prevBalance.equals(balance)) {
+                continue;
+            }
+
+            updateUserDividends(user, prevBalance);
+            totalSupply = totalSupply.add(balance).subtract(prevBalance);
+            if (balance.equals(BigInteger.ZERO)) {
+                userBalance.set(user, null);
+                UserKicked(user, "user kicked".getBytes());
+            } else {
+                userBalance.set(user, balance);
+            }
+        }
+
+        DividendsTracker.setBBalnTotalSupply(totalSupply);
+    }
+
     private void updateUserDividends(Address user, BigInteger prevBalance) {
+        List<Address> tokens = getAcceptedTokens();
+        UserDividends data = loadUserDividends(user, tokens);
+        for (Address token : tokens) {
+            BigInteger accruedDividends = DividendsTracker.updateBoostedUserData(data, token, prevBalance);
+            data.setAccrued(token, data.getAccrued(token).add(accruedDividends));
+        }
+
+        saveUserDividends(user, data, tokens);
+    }
+
+    // Tokens missing from the packed record are seeded from the per token entries written before it existed
+    private UserDividends loadUserDividends(Address user, List<Address> tokens) {
+        UserDividends data = DividendsTracker.getUserDividends(user);
         DictDB<Address, BigInteger> userAccruedDividends = accruedDividends.at(user);
-        int size = acceptedTokens.size();
-        for (int i = 0; i < size; i++) {
-            Address token = acceptedTokens.get(i);
-            BigInteger accruedDividends = DividendsTracker.updateBoostedUserData(token, user, prevBalance, false);
-            BigInteger prevAccruedDividends = userAccruedDividends.getOrDefault(token, BigInteger.ZERO);
-            userAccruedDividends.set(token, prevAccruedDividends.add(accruedDividends));
+        for (Address token : tokens) {
+            if (data.contains(token)) {
+                continue;
+            }
+
+            BigInteger weight = DividendsTracker.getUserBoostedWeight(user, token);
+            BigInteger accrued = userAccruedDividends.get(token);
+            if (accrued == null && weight.signum() == 0) {
+                data.set(token, weight, BigInteger.ZERO);
+            } else {
+                data.migrate(token, weight, accrued == null ? BigInteger.ZERO : accrued);
+            }
+        }
+
+        return data;
+    }
+
+    // Entries of tokens that are no longer accepted are moved back to the per token entries, so the packed record
+    // only holds accepted tokens and re-accepting a token resumes from where the user left off. Per token entries
+    // that were seeded into the record are cleared, as the record now holds their values.
+    private void saveUserDividends(Address user, UserDividends data, List<Address> tokens) {
+        for (Address token : data.getTokens()) {
+            if (!tokens.contains(token)) {
+                DividendsTracker.setUserBoostedWeight(user, token, data.getWeight(token));
+                accruedDividends.at(user).set(token, data.getAccrued(token));
+                data.remove(token);
+            }
         }
+
+        for (Address token : data.getMigrated()) {
+            DividendsTracker.setUserBoostedWeight(user, token, null);
+            accruedDividends.at(user).set(token, null);
+        }
+
+        DividendsTracker.setUserDividends(user, data);
     }
 
     private int[] checkStartEnd(int start, int end) {
@@ -668,18 +822,22 @@ public class DividendsImpl implements Dividends {
             return Map.of();
         }
 
+        if (day.compareTo(getLegacyDividendsFoldDay()) < 0) {
+            Map<String, BigInteger> foldedDividends = getFoldedDividendsForDay(account, day, dex,
+                    dividendsSwitchingDay, acceptedTokensList);
+            if (foldedDividends != null) {
+                return foldedDividends;
+            }
+        }
+
         BigInteger stakedBaln = (BigInteger) Context.call(baln, "stakedBalanceOfAt", account, day);
         BigInteger totalStakedBaln = (BigInteger) Context.call(baln, "totalStakedBalanceOfAt", day);
 
         BigInteger myBalnFromPools = BigInteger.ZERO;
         BigInteger totalBalnFromPools = BigInteger.ZERO;
 
-        List<BigInteger> poolList = new ArrayList<>();
-        poolList.add(BALNBNUSD_ID);
-        poolList.add(BALNSICX_ID);
-
-        if (dividendsSwitchingDay.equals(BigInteger.ZERO) || (day.compareTo(dividendsSwitchingDay) < 0)) {
-            for (BigInteger poolId : poolList) {
+        if (includesPools(day, dividendsSwitchingDay)) {
+            for (BigInteger poolId : getLegacyPools()) {
                 BigInteger myLp = (BigInteger) Context.call(dex, "balanceOfAt", account, poolId, day);
                 BigInteger totalLp = (BigInteger) Context.call(dex, "totalSupplyAt", poolId, day);
                 BigInteger totalBaln = (BigInteger) Context.call(dex, "totalBalnAt", poolId, day);
@@ -712,6 +870,82 @@ public class DividendsImpl implements Dividends {
         return myDividends;
     }
 
+    // Computes a folded day with the legacy formula from the totals cached by the fold, so only the account's own
+    // balances still need external calls. Returns null when the day has not been folded.
+    private Map<String, BigInteger> getFoldedDividendsForDay(Address account, BigInteger day, Address dex,
+                                                             BigInteger dividendsSwitchingDay,
+                                                             List<Address> acceptedTokensList) {
+        BigInteger totalBalnToken = legacyTotalBaln.get(day);
+        if (totalBalnToken == null) {
+            return null;
+        }
+
+        DictDB<String, BigInteger> dailyFeesForDay = dailyFees.at(day);
+        boolean hasFees = false;
+        for (Address token : acceptedTokensList) {
+            hasFees = hasFees || dailyFeesForDay.getOrDefault(token.toString(), BigInteger.ZERO).signum() > 0;
+        }
+
+        if (!hasFees || totalBalnToken.signum() <= 0) {
+            return Map.of();
+        }
+
+        BigInteger myTotalBalnToken = (BigInteger) Context.call(getBaln(), "stakedBalanceOfAt", account, day);
+        if (includesPools(day, dividendsSwitchingDay)) {
+            for (BigInteger poolId : getLegacyPools()) {
+                BigInteger totalLp = legacyPoolLp.at(poolId).getOrDefault(day, BigInteger.ZERO);
+                BigInteger totalBaln = legacyPoolBaln.at(poolId).getOrDefault(day, BigInteger.ZERO);
+                if (totalLp.signum() <= 0 || totalBaln.signum() <= 0) {
+                    continue;
+                }
+
+                BigInteger myLp = (BigInteger) Context.call(dex, "balanceOfAt", account, poolId, day);
+                myTotalBalnToken = myTotalBalnToken.add(myLp.multiply(totalBaln).divide(totalLp));
+            }
+        }
+
+        if (myTotalBalnToken.signum() <= 0) {
+            return Map.of();
+        }
+
+        BigInteger holdersPercentage = dividendsAt(day).get(BALN_HOLDERS);
+        BigInteger denominator = totalBalnToken.multiply(EXA);
+        Map<String, BigInteger> myDividends = new HashMap<>();
+        for (Address token : acceptedTokensList) {
+            BigInteger numerator = myTotalBalnToken.multiply(holdersPercentage)
+                    .multiply(dailyFeesForDay.getOrDefault(token.toString(), BigInteger.ZERO));
+            myDividends.put(token.toString(), numerator.divide(denominator));
+        }
+
+        return myDividends;
+    }
+
+    private void foldLegacyDay(BigInteger day, Address baln, Address dex, BigInteger dividendsSwitchingDay) {
+        BigInteger totalBalnToken = (BigInteger) Context.call(baln, "totalStakedBalanceOfAt", day);
+        if (includesPools(day, dividendsSwitchingDay)) {
+            for (BigInteger poolId : getLegacyPools()) {
+                BigInteger totalLp = (BigInteger) Context.call(dex, "totalSupplyAt", poolId, day);
+                BigInteger totalBaln = (BigInteger) Context.call(dex, "totalBalnAt", poolId, day);
+                legacyPoolLp.at(poolId).set(day, totalLp);
+                legacyPoolBaln.at(poolId).set(day, totalBaln);
+                totalBalnToken = totalBalnToken.add(totalBaln);
+            }
+        }
+
+        legacyTotalBaln.set(day, totalBalnToken);
+    }
+
+    private boolean includesPools(BigInteger day, BigInteger dividendsSwitchingDay) {
+        return dividendsSwitchingDay.equals(BigInteger.ZERO) || (day.compareTo(dividendsSwitchingDay) < 0);
+    }
+
+    private List<BigInteger> getLegacyPools() {
+        List<BigInteger> poolList = new ArrayList<>();
+        poolList.add(BALNBNUSD_ID);
+        poolList.add(BALNSICX_ID);
+        return poolList;
+    }
+
     private Map<String, BigInteger> getDividendsForDaoFund(BigInteger day, List<Address> acceptedTokensList,
                                                            Address dao) {
         boolean claim = isClaimed(dao, day);
@@ -781,6 +1015,25 @@ public class DividendsImpl implements Dividends {
         FundTransfer(to, amount, msg + amount + " token sent to" + to);
     }
 
+    // Tokens accepted before metadata was cached fall back to querying the token contract
+    private String getTokenSymbol(Address token) {
+        String symbol = acceptedTokenSymbols.get(token);
+        if (symbol != null) {
+            return symbol;
+        }
+
+        return Context.call(String.class, token, "symbol");
+    }
+
+    private BigInteger getTokenDecimals(Address token) {
+        BigInteger decimals = acceptedTokenDecimals.get(token);
+        if (decimals != null) {
+            return decimals;
+        }
+
+        return Context.call(BigInteger.class, token, "decimals");
+    }
+
     private BigInteger getBalnBalance(Address user) {
         return Context.call(BigInteger.class, getBaln(), "stakedBalanceOf", user);
     }
@@ -807,13 +1060,6 @@ public class DividendsImpl implements Dividends {
         return mapAsJson.toString();
     }
 
-    private void routeFees() {
-        try {
-            Context.call(getFeehandler(), "routeFees");
-        } catch (Exception e) {
-        }
-    }
-
     @EventLog(indexed = 3)
     public void FundTransfer(Address destination, BigInteger amount, String note) {
 
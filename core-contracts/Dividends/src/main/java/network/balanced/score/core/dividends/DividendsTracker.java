@@ -16,6 +16,7 @@
 
 package network.balanced.score.core.dividends;
 
+import network.balanced.score.core.dividends.structs.UserDividends;
 import score.*;
 
 import java.math.BigInteger;
@@ -34,6 +35,9 @@ public class DividendsTracker {
             Context.newBranchDB(BBALN_USER_WEIGHT, BigInteger.class);
     private static final DictDB<Address, BigInteger> boostedTotalWeight = Context.newDictDB(BBALN_TOTAL_WEIGHT,
             BigInteger.class);
+    // Packed replacement of boostedUserWeight and the per token accrued dividends, one entry per user
+    private static final DictDB<Address, UserDividends> userDividends = Context.newDictDB(USER_DIVIDENDS,
+            UserDividends.class);
     protected static final DictDB<Address, BigInteger> userBalance = Context.newDictDB(USER_BBALN_BALANCE,
             BigInteger.class);
     private static final VarDB<BigInteger> boostedTotalSupply = Context.newVarDB(BBALN_SUPPLY, BigInteger.class);
@@ -52,6 +56,10 @@ public class DividendsTracker {
         return boostedUserWeight.at(user).getOrDefault(token, BigInteger.ZERO);
     }
 
+    public static void setUserBoostedWeight(Address user, Address token, BigInteger weight) {
+        boostedUserWeight.at(user).set(token, weight);
+    }
+
     public static BigInteger getBoostedTotalSupply() {
         return boostedTotalSupply.getOrDefault(BigInteger.ZERO);
     }
@@ -84,13 +92,18 @@ public class DividendsTracker {
         return computeUserRewards(prevBalance, totalWeight, currentUserWeight);
     }
 
-    public static BigInteger updateBoostedUserData(Address token, Address user, BigInteger prevBalance,
-                                                   boolean readOnlyContext) {
-        BigInteger currentUserWeight = getUserBoostedWeight(user, token);
+    public static UserDividends getUserDividends(Address user) {
+        return userDividends.getOrDefault(user, new UserDividends());
+    }
+
+    public static void setUserDividends(Address user, UserDividends data) {
+        userDividends.set(user, data);
+    }
+
+    public static BigInteger updateBoostedUserData(UserDividends data, Address token, BigInteger prevBalance) {
+        BigInteger currentUserWeight = data.getWeight(token);
         BigInteger totalWeight = getBoostedTotalWeight(token);
-        if (!readOnlyContext) {
-            boostedUserWeight.at(user).set(token, totalWeight);
-        }
+        data.setWeight(token, totalWeight);
 
         return computeUserRewards(prevBalance, totalWeight, currentUserWeight);
     }
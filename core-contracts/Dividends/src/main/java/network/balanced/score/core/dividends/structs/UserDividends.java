@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.core.dividends.structs;
+
+import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user bBaln dividends state for every token the user has been updated for, stored as a single RLP list of
+ * [token, boosted weight snapshot, accrued dividends] entries.
+ */
+public class UserDividends {
+    private final List<Address> tokens = new ArrayList<>();
+    private final Map<Address, BigInteger> weights = new HashMap<>();
+    private final Map<Address, BigInteger> accrued = new HashMap<>();
+    // Tokens seeded from the per token entries since the record was read, not part of the stored record
+    private final List<Address> migrated = new ArrayList<>();
+
+    public boolean contains(Address token) {
+        return weights.containsKey(token);
+    }
+
+    public BigInteger getWeight(Address token) {
+        return weights.getOrDefault(token, BigInteger.ZERO);
+    }
+
+    public void setWeight(Address token, BigInteger weight) {
+        add(token);
+        weights.put(token, weight);
+    }
+
+    public BigInteger getAccrued(Address token) {
+        return accrued.getOrDefault(token, BigInteger.ZERO);
+    }
+
+    public void setAccrued(Address token, BigInteger amount) {
+        add(token);
+        accrued.put(token, amount);
+    }
+
+    public void set(Address token, BigInteger weight, BigInteger amount) {
+        setWeight(token, weight);
+        setAccrued(token, amount);
+    }
+
+    public void migrate(Address token, BigInteger weight, BigInteger amount) {
+        set(token, weight, amount);
+        migrated.add(token);
+    }
+
+    public List<Address> getMigrated() {
+        List<Address> copy = new ArrayList<>(migrated.size());
+        copy.addAll(migrated);
+        return copy;
+    }
+
+    public List<Address> getTokens() {
+        List<Address> copy = new ArrayList<>(tokens.size());
+        copy.addAll(tokens);
+        return copy;
+    }
+
+    public void remove(Address token) {
+        tokens.remove(token);
+        migrated.remove(token);
+        weights.remove(token);
+        accrued.remove(token);
+    }
+
+    private void add(Address token) {
+        if (!weights.containsKey(token)) {
+            tokens.add(token);
+            weights.put(token, BigInteger.ZERO);
+            accrued.put(token, BigInteger.ZERO);
+        }
+    }
+
+    public static void writeObject(ObjectWriter writer, UserDividends obj) {
+        int size = obj.tokens.size();
+        writer.beginList(size);
+        for (Address token : obj.tokens) {
+            writer.beginList(3);
+            writer.write(token);
+            writer.write(obj.weights.get(token));
+            writer.write(obj.accrued.get(token));
+            writer.end();
+        }
+        writer.end();
+    }
+
+    public static UserDividends readObject(ObjectReader reader) {
+        UserDividends obj = new UserDividends();
+        reader.beginList();
+        while (reader.hasNext()) {
+            reader.beginList();
+            Address token = reader.readAddress();
+            BigInteger weight = reader.readBigInteger();
+            BigInteger amount = reader.readBigInteger();
+            reader.end();
+            obj.set(token, weight, amount);
+        }
+        reader.end();
+        return obj;
+    }
+}
@@ -17,11 +17,17 @@
 package network.balanced.score.core.dividends;
 
 import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import network.balanced.score.core.dividends.structs.UserDividends;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -142,6 +148,55 @@ class DividendsImplTestContinuousDividends extends DividendsImplTestBase {
                 "getUnclaimedDividends", staker2.getAddress()));
     }
 
+    @Test
+    void onBalanceUpdateBatch_bbaln() {
+        // Arrange
+        Account staker1 = sm.createAccount();
+        Account staker2 = sm.createAccount();
+
+        when(baln.mock.stakedBalanceOf(staker1.getAddress())).thenReturn(BigInteger.ZERO);
+        when(baln.mock.stakedBalanceOf(staker2.getAddress())).thenReturn(BigInteger.ZERO);
+
+        BigInteger stakerPercentage = getFeePercentage("baln_holders");
+
+        BigInteger staker1BBalnBalance = BigInteger.valueOf(150).multiply(ICX);
+        BigInteger staker2BBalnBalance = BigInteger.valueOf(50).multiply(ICX);
+        BigInteger totalSupply = BigInteger.valueOf(200).multiply(ICX);
+
+        mockBBalnBalanceOf(staker2.getAddress(), staker2BBalnBalance);
+        mockBBalnBalanceOf(staker1.getAddress(), staker1BBalnBalance);
+
+        // Act
+        dividendScore.invoke(bBaln.account, "onBalanceUpdateBatch",
+                new Address[]{staker1.getAddress(), staker2.getAddress()},
+                new BigInteger[]{staker1BBalnBalance, staker2BBalnBalance});
+
+        BigInteger loanAmount = BigInteger.TEN.pow(20);
+        BigInteger dividendsForBBalnUser = loanAmount.multiply(stakerPercentage).divide(ICX);
+        addBnusdFeesAndMockDaoFund(loanAmount);
+
+        BigInteger user1AccruedDividends = dividendsForBBalnUser.multiply(staker1BBalnBalance).divide(totalSupply);
+        BigInteger user2AccruedDividends = dividendsForBBalnUser.multiply(staker2BBalnBalance).divide(totalSupply);
+
+        dividendScore.invoke(bBaln.account, "onBalanceUpdateBatch",
+                new Address[]{staker1.getAddress(), staker2.getAddress()},
+                new BigInteger[]{BigInteger.ZERO, staker2BBalnBalance});
+
+        // Assert
+        mockStake(staker1.getAddress(), staker1BBalnBalance);
+        mockStake(staker2.getAddress(), staker2BBalnBalance);
+
+        dividendScore.invoke(staker1, "claimDividends");
+        dividendScore.invoke(staker2, "claimDividends");
+
+        verify(bnUSD.mock).transfer(staker1.getAddress(), user1AccruedDividends, new byte[0]);
+        verify(bnUSD.mock).transfer(staker2.getAddress(), user2AccruedDividends, new byte[0]);
+
+        Executable wrongLength = () -> dividendScore.invoke(bBaln.account, "onBalanceUpdateBatch",
+                new Address[]{staker1.getAddress()}, new BigInteger[0]);
+        expectErrorMessage(wrongLength, "Users and balances must have the same length");
+    }
+
     @Test
     void onBalanceUpdate_bbaln() {
         // Arrange
@@ -245,6 +300,82 @@ class DividendsImplTestContinuousDividends extends DividendsImplTestBase {
                 "getUnclaimedDividends", staker2.getAddress()));
     }
 
+    @Test
+    void userDividends_roundTrip() {
+        // Arrange
+        Address token1 = bnUSD.getAddress();
+        Address token2 = sicx.getAddress();
+        UserDividends data = new UserDividends();
+        data.set(token1, BigInteger.valueOf(11), BigInteger.valueOf(12));
+        data.setWeight(token2, BigInteger.valueOf(21));
+
+        // Act
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        UserDividends.writeObject(writer, data);
+        UserDividends decoded = UserDividends.readObject(Context.newByteArrayObjectReader("RLPn",
+                writer.toByteArray()));
+
+        // Assert
+        assertEquals(List.of(token1, token2), decoded.getTokens());
+        assertEquals(BigInteger.valueOf(11), decoded.getWeight(token1));
+        assertEquals(BigInteger.valueOf(12), decoded.getAccrued(token1));
+        assertEquals(BigInteger.valueOf(21), decoded.getWeight(token2));
+        assertEquals(BigInteger.ZERO, decoded.getAccrued(token2));
+
+        decoded.remove(token1);
+        assertEquals(List.of(token2), decoded.getTokens());
+        assertEquals(BigInteger.ZERO, decoded.getWeight(token1));
+    }
+
+    @Test
+    void claimDividends_preUpgradeUser() throws Exception {
+        // Arrange
+        Score legacyScore = sm.deploy(owner, LegacyDividendsTester.class, governance.getAddress());
+        legacyScore.invoke(governance.account, "addAcceptedTokens", bnUSD.getAddress());
+        Account staker = sm.createAccount();
+        when(baln.mock.stakedBalanceOf(staker.getAddress())).thenReturn(BigInteger.ZERO);
+
+        BigInteger stakerPercentage = getFeePercentage("baln_holders");
+        BigInteger balance = BigInteger.valueOf(200).multiply(ICX);
+        BigInteger legacyAccrued = BigInteger.valueOf(7).multiply(ICX);
+        BigInteger fees = BigInteger.TEN.pow(20);
+        BigInteger stakerFees = fees.multiply(stakerPercentage).divide(ICX);
+
+        // State as written by the contract before the per user record was packed
+        legacyScore.invoke(owner, "setLegacyBoostedUser", staker.getAddress(), bnUSD.getAddress(), balance,
+                BigInteger.ZERO, legacyAccrued);
+        legacyScore.invoke(bnUSD.account, "tokenFallback", bnUSD.getAddress(), fees, new byte[0]);
+        BigInteger settledWeight = stakerFees.multiply(ICX).divide(balance);
+        legacyScore.invoke(owner, "setLegacyBoostedUser", staker.getAddress(), bnUSD.getAddress(), balance,
+                settledWeight, legacyAccrued);
+
+        // Act
+        legacyScore.invoke(bnUSD.account, "tokenFallback", bnUSD.getAddress(), fees, new byte[0]);
+        BigInteger expected = legacyAccrued.add(stakerFees);
+        assertEquals(Map.of(bnUSD.getAddress().toString(), expected), legacyScore.call("getUnclaimedDividends",
+                staker.getAddress()));
+        legacyScore.invoke(staker, "claimDividends");
+
+        // Assert
+        verify(bnUSD.mock).transfer(staker.getAddress(), expected, new byte[0]);
+        assertEquals(Map.of(bnUSD.getAddress().toString(), BigInteger.ZERO), legacyScore.call(
+                "getUnclaimedDividends", staker.getAddress()));
+        assertEquals(false, legacyScore.call("hasLegacyEntries", staker.getAddress(), bnUSD.getAddress()));
+
+        // A token dropped from the record while not accepted resumes from the same point when it is accepted again
+        legacyScore.invoke(bnUSD.account, "tokenFallback", bnUSD.getAddress(), fees, new byte[0]);
+        legacyScore.invoke(governance.account, "removeAcceptedTokens", bnUSD.getAddress());
+        legacyScore.invoke(bBaln.account, "onBalanceUpdate", staker.getAddress(), balance);
+        assertEquals(List.of(), legacyScore.call("getPackedTokens", staker.getAddress()));
+        assertEquals(true, legacyScore.call("hasLegacyEntries", staker.getAddress(), bnUSD.getAddress()));
+        legacyScore.invoke(governance.account, "addAcceptedTokens", bnUSD.getAddress());
+        assertEquals(Map.of(bnUSD.getAddress().toString(), stakerFees), legacyScore.call("getUnclaimedDividends",
+                staker.getAddress()));
+        legacyScore.invoke(bBaln.account, "onBalanceUpdate", staker.getAddress(), balance);
+        assertEquals(List.of(bnUSD.getAddress()), legacyScore.call("getPackedTokens", staker.getAddress()));
+        assertEquals(false, legacyScore.call("hasLegacyEntries", staker.getAddress(), bnUSD.getAddress()));
+    }
+
     private void addBnusdFeesAndMockDaoFund(BigInteger amount) {
         BigInteger daofundPercentage = getFeePercentage("daofund");
         BigInteger expectedDaofundFees = amount.multiply(daofundPercentage).divide(ICX);
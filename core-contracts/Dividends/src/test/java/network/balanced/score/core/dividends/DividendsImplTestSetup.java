@@ -16,9 +16,12 @@
 
 package network.balanced.score.core.dividends;
 
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
 import network.balanced.score.lib.structs.DistributionPercentage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import score.Address;
 
 import java.math.BigInteger;
@@ -29,6 +32,9 @@ import java.util.Map;
 
 import static network.balanced.score.lib.utils.Math.pow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class DividendsImplTestSetup extends DividendsImplTestBase {
     @BeforeEach
@@ -59,6 +65,23 @@ class DividendsImplTestSetup extends DividendsImplTestBase {
         assertEquals(expected_list, dividendScore.call("getAcceptedTokens"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAcceptedTokensInfo() {
+        when(sicx.mock.symbol()).thenReturn("sICX");
+        when(sicx.mock.decimals()).thenReturn(BigInteger.valueOf(18));
+
+        dividendScore.invoke(governance.account, "addAcceptedTokens", sicx.getAddress());
+        Map<String, Map<String, Object>> info =
+                (Map<String, Map<String, Object>>) dividendScore.call("getAcceptedTokensInfo");
+        dividendScore.call("getAcceptedTokensInfo");
+
+        assertEquals("sICX", info.get(sicx.getAddress().toString()).get("symbol"));
+        assertEquals(BigInteger.valueOf(18), info.get(sicx.getAddress().toString()).get("decimals"));
+        verify(sicx.mock, times(1)).symbol();
+        verify(sicx.mock, times(1)).decimals();
+    }
+
     @Test
     void getDividendsCategories() {
         List<String> expected_list = new ArrayList<>();
@@ -120,6 +143,54 @@ class DividendsImplTestSetup extends DividendsImplTestBase {
         assertEquals(BigInteger.ONE, dividendScore.call("getSnapshotId"));
     }
 
+    @Test
+    void foldLegacyDividends() {
+        assertEquals(BigInteger.ONE, dividendScore.call("getLegacyDividendsFoldDay"));
+
+        // snapshot id 1 leaves no legacy days to fold
+        dividendScore.invoke(owner, "foldLegacyDividends", 10);
+        assertEquals(BigInteger.ONE, dividendScore.call("getLegacyDividendsFoldDay"));
+
+        Executable zeroDays = () -> dividendScore.invoke(owner, "foldLegacyDividends", 0);
+        expectErrorMessage(zeroDays, "maxDays has to be positive");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void foldLegacyDividends_matchesLegacyPayout() throws Exception {
+        // Arrange
+        Score legacyScore = sm.deploy(owner, LegacyDividendsTester.class, governance.getAddress());
+        Account user = sm.createAccount();
+        legacyScore.invoke(governance.account, "addAcceptedTokens", bnUSD.getAddress());
+        legacyScore.invoke(owner, "setLegacyStakedBalnOnlyDay", BigInteger.ONE);
+
+        // Amounts that do not divide evenly, so any rounding that differs from the legacy formula shows up
+        BigInteger[] fees = new BigInteger[]{new BigInteger("100000000000000000007"),
+                new BigInteger("50000000000000000013"), new BigInteger("30000000000000000001")};
+        BigInteger[] totalStaked = new BigInteger[]{new BigInteger("3000000000000000001"),
+                new BigInteger("7000000000000000005"), new BigInteger("9000000000000000007")};
+        BigInteger[] staked = new BigInteger[]{new BigInteger("1000000000000000003"),
+                new BigInteger("2000000000000000001"), new BigInteger("4000000000000000009")};
+        for (int i = 0; i < fees.length; i++) {
+            BigInteger day = BigInteger.valueOf(i + 1);
+            legacyScore.invoke(owner, "setLegacyDailyFees", day, bnUSD.getAddress(), fees[i]);
+            when(baln.mock.totalStakedBalanceOfAt(day)).thenReturn(totalStaked[i]);
+            when(baln.mock.stakedBalanceOfAt(user.getAddress(), day)).thenReturn(staked[i]);
+        }
+
+        int end = fees.length + 1;
+        Map<String, BigInteger> legacyDividends =
+                (Map<String, BigInteger>) legacyScore.call("getUserDividends", user.getAddress(), 1, end);
+
+        // Act
+        legacyScore.invoke(owner, "foldLegacyDividends", 10);
+
+        // Assert
+        assertEquals(BigInteger.valueOf(end), legacyScore.call("getLegacyDividendsFoldDay"));
+        assertEquals(legacyDividends, legacyScore.call("getUserDividends", user.getAddress(), 1, end));
+        assertEquals(new BigInteger("36571428571428571494"), legacyDividends.get(bnUSD.getAddress().toString()));
+    }
+
     @Test
     void setGetDividendsOnlyToStakedBalnDay() {
         dividendScore.invoke(governance.account, "setDividendsOnlyToStakedBalnDay", BigInteger.TWO);
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.core.dividends;
+
+import score.Address;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+import score.annotation.External;
+import score.annotation.Optional;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static network.balanced.score.core.dividends.Constants.ACCRUED_DIVIDENDS;
+import static network.balanced.score.core.dividends.Constants.BBALN_USER_WEIGHT;
+import static network.balanced.score.core.dividends.Constants.DAILY_FEES;
+import static network.balanced.score.core.dividends.Constants.DIVIDENDS_ENABLED_TO_STAKED_BALN_ONLY_DAY;
+
+/**
+ * Dividends with setters for state that only earlier versions of the contract wrote.
+ */
+public class LegacyDividendsTester extends DividendsImpl {
+    private static final BranchDB<BigInteger, DictDB<String, BigInteger>> legacyDailyFees =
+            Context.newBranchDB(DAILY_FEES, BigInteger.class);
+    private static final BranchDB<Address, DictDB<Address, BigInteger>> legacyAccruedDividends =
+            Context.newBranchDB(ACCRUED_DIVIDENDS, BigInteger.class);
+    private static final BranchDB<Address, DictDB<Address, BigInteger>> legacyBoostedUserWeight =
+            Context.newBranchDB(BBALN_USER_WEIGHT, BigInteger.class);
+    private static final VarDB<BigInteger> legacyStakedBalnOnlyDay =
+            Context.newVarDB(DIVIDENDS_ENABLED_TO_STAKED_BALN_ONLY_DAY, BigInteger.class);
+
+    public LegacyDividendsTester(@Optional Address _governance) {
+        super(_governance);
+    }
+
+    @External
+    public void setLegacyDailyFees(BigInteger day, Address token, BigInteger fees) {
+        legacyDailyFees.at(day).set(token.toString(), fees);
+        if (snapshotId.get().compareTo(day) <= 0) {
+            snapshotId.set(day.add(BigInteger.ONE));
+        }
+    }
+
+    @External
+    public void setLegacyStakedBalnOnlyDay(BigInteger day) {
+        legacyStakedBalnOnlyDay.set(day);
+    }
+
+    @External
+    public void setLegacyBoostedUser(Address user, Address token, BigInteger balance, BigInteger weight,
+                                     BigInteger accrued) {
+        DividendsTracker.userBalance.set(user, balance);
+        DividendsTracker.setUserBoostedWeight(user, token, weight);
+        legacyAccruedDividends.at(user).set(token, accrued);
+        DividendsTracker.setBBalnTotalSupply(balance);
+    }
+
+    @External(readonly = true)
+    public List<Address> getPackedTokens(Address user) {
+        return DividendsTracker.getUserDividends(user).getTokens();
+    }
+
+    @External(readonly = true)
+    public boolean hasLegacyEntries(Address user, Address token) {
+        return legacyAccruedDividends.at(user).get(token) != null
+                || legacyBoostedUserWeight.at(user).get(token) != null;
+    }
+}
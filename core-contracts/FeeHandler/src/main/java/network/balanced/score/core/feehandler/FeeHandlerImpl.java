@@ -228,6 +228,11 @@ public class FeeHandlerImpl implements FeeHandler {
         return FeeRouter.getRoutedTokens();
     }
 
+    @External(readonly = true)
+    public List<Address> getPendingFeeTokens() {
+        return FeeRouter.getPendingFeeTokens();
+    }
+
     @External(readonly = true)
     public int getNextAllowedAddressIndex() {
         return FeeRouter.routeIndex.get();
@@ -237,6 +242,7 @@ public class FeeHandlerImpl implements FeeHandler {
     public void tokenFallback(Address _from, BigInteger _value, byte[] _data) {
         Address token = Context.getCaller();
         collectFeeData(token, _from, _value);
+        FeeRouter.markPendingFees(token);
 
         if (Arrays.equals(lastTxhash.getOrDefault(new byte[0]), Context.getTransactionHash())) {
             return;
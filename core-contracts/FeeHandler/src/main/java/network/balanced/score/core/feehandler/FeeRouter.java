@@ -41,12 +41,15 @@ public class FeeRouter {
     private static final String ROUTE_INDEX = "routes_index";
     private static final String ROUTE_LIMIT = "route_limit";
     private static final String BALN_ROUTE_LIMIT = "baln_route_limit";
+    private static final String PENDING_FEES = "pending_fees";
 
     public static final VarDB<Integer> routeIndex = Context.newVarDB(ROUTE_INDEX, Integer.class);
     private static final IterableDictDB<Address, String> routes = new IterableDictDB<>(ROUTES, String.class,
             Address.class, false);
     public static final DictDB<Address, BigInteger> routeLimit = Context.newDictDB(ROUTE_LIMIT, BigInteger.class);
     public static final VarDB<BigInteger> balnRouteLimit = Context.newVarDB(BALN_ROUTE_LIMIT, BigInteger.class);
+    // Set when a routed token receives fees and cleared when routeFees visits it, so keepers can skip idle calls
+    private static final DictDB<Address, Boolean> pendingFees = Context.newDictDB(PENDING_FEES, Boolean.class);
 
     public static void addDefaultRoute(Address token) {
         Context.require(!arrayDbContains(acceptedDividendsTokens, token), "Token is accepted, should not be routed");
@@ -132,6 +135,26 @@ public class FeeRouter {
 
     public static void deleteRoute(Address _fromToken) {
         routes.remove(_fromToken);
+        pendingFees.set(_fromToken, null);
+    }
+
+    public static void markPendingFees(Address token) {
+        if (pendingFees.getOrDefault(token, false) || routes.get(token) == null) {
+            return;
+        }
+
+        pendingFees.set(token, true);
+    }
+
+    public static List<Address> getPendingFeeTokens() {
+        List<Address> pendingTokens = new ArrayList<>();
+        for (Address token : routes.keys()) {
+            if (pendingFees.getOrDefault(token, false)) {
+                pendingTokens.add(token);
+            }
+        }
+
+        return pendingTokens;
     }
 
     public static List<String> getRoute(Address _fromToken) {
@@ -187,6 +210,7 @@ public class FeeRouter {
         routeIndex.set(index);
 
         Address tokenToRoute = routes.getKey(index);
+        pendingFees.set(tokenToRoute, null);
         BigInteger balance = Context.call(BigInteger.class, tokenToRoute, "balanceOf", Context.getAddress());
         if (balance.compareTo(routeLimit.getOrDefault(tokenToRoute, BigInteger.ZERO)) < 0) {
             return;
@@ -368,6 +368,27 @@ class FeeHandlerImplTest extends TestBase {
         verify(token1.mock).transfer(eq(mockBalanced.router.getAddress()), eq(balance1), any(byte[].class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void routeFees_pendingFeeTokens() throws Exception {
+        // Arrange
+        Account caller = sm.createAccount();
+        MockContract<IRC2> token = new MockContract<>(IRC2ScoreInterface.class, IRC2.class, sm, owner);
+        BigInteger balance = BigInteger.valueOf(7);
+        feeHandler.invoke(governance.account, "setRoute", token.getAddress(), new Address[]{});
+        when(token.mock.balanceOf(feeHandler.getAddress())).thenReturn(balance);
+        assertTrue(((List<Address>) feeHandler.call("getPendingFeeTokens")).isEmpty());
+
+        // Act
+        feeHandler.invoke(token.account, "tokenFallback", mockBalanced.dex.getAddress(), balance, new byte[0]);
+
+        // Assert
+        assertEquals(List.of(token.getAddress()), feeHandler.call("getPendingFeeTokens"));
+        feeHandler.invoke(caller, "routeFees");
+        verify(token.mock).transfer(eq(mockBalanced.dex.getAddress()), eq(balance), any(byte[].class));
+        assertTrue(((List<Address>) feeHandler.call("getPendingFeeTokens")).isEmpty());
+    }
+
     @Test
     void manualRoute() throws Exception {
         // Arrange
@@ -261,26 +261,59 @@ public class DataSourceImpl {
     }
 
     public Map<Address, BigInteger> updateSingleUserData(BigInteger currentTime, BalanceData balances, String user, boolean readOnlyContext) {
-        BigInteger currentUserWeight = getUserWeight(user);
         BigInteger lastUpdateTimestamp = getLastUpdateTimeUs();
         Address[] externalRewards = getRewardTokens();
-        Address baln = BalancedAddressManager.getBaln();
         Map<Address, BigInteger> totalWeight = updateTotalWeight(lastUpdateTimestamp, currentTime, balances, externalRewards, readOnlyContext);
+        return computeAccruedRewards(user, balances, totalWeight, externalRewards, readOnlyContext);
+    }
+
+    // Readonly snapshot of the source's running totals, computed once and shared between holders in batch queries
+    public Map<Address, BigInteger> getCurrentTotalWeights(BigInteger currentTime, Address[] externalRewards) {
+        BalanceData balances = new BalanceData();
+        balances.prevSupply = getTotalSupply();
+        balances.prevWorkingSupply = getWorkingSupply();
+        return updateTotalWeight(getLastUpdateTimeUs(), currentTime, balances, externalRewards, true);
+    }
+
+    public Map<Address, BigInteger> computeAccruedRewards(String user, BalanceData balances,
+                                                          Map<Address, BigInteger> totalWeight,
+                                                          Address[] externalRewards, boolean readOnlyContext) {
+        Address baln = BalancedAddressManager.getBaln();
         Map<Address, BigInteger> accruedRewards = new HashMap<>(externalRewards.length + 1);
-        accruedRewards.put(baln, BigInteger.ZERO);
+        boolean hasWorkingBalance = balances.prevWorkingBalance.compareTo(BigInteger.ZERO) > 0;
 
         //  If the user's current weight is less than the total, update their weight and issue rewards
-        if (balances.prevWorkingBalance.compareTo(BigInteger.ZERO) > 0) {
-            accruedRewards.put(baln, computeUserRewards(balances.prevWorkingBalance, totalWeight.get(baln), currentUserWeight));
-            for (Address token : externalRewards) {
-                accruedRewards.put(token, computeUserRewards(balances.prevBalance, totalWeight.get(token), getExternalUserWeight(user, token)));
+        BigInteger balnTotalWeight = totalWeight.get(baln);
+        BigInteger currentUserWeight = getUserWeight(user);
+        accruedRewards.put(baln, BigInteger.ZERO);
+        if (!currentUserWeight.equals(balnTotalWeight)) {
+            if (hasWorkingBalance) {
+                accruedRewards.put(baln, computeUserRewards(balances.prevWorkingBalance, balnTotalWeight, currentUserWeight));
+            }
+
+            if (!readOnlyContext) {
+                userWeight.at(dbKey).set(user, balnTotalWeight);
             }
         }
 
-        if (!readOnlyContext) {
-            userWeight.at(dbKey).set(user, totalWeight.get(baln));
-            for (Address token : externalRewards) {
-                externalUserWeight.at(dbKey).at(token).set(user, totalWeight.get(token));
+        for (Address token : externalRewards) {
+            // Running totals never decrease, so a token this source has not distributed yet cannot carry user weight
+            BigInteger tokenTotalWeight = totalWeight.get(token);
+            if (tokenTotalWeight.signum() == 0) {
+                continue;
+            }
+
+            BigInteger tokenUserWeight = getExternalUserWeight(user, token);
+            if (tokenUserWeight.equals(tokenTotalWeight)) {
+                continue;
+            }
+
+            if (hasWorkingBalance) {
+                accruedRewards.put(token, computeUserRewards(balances.prevBalance, tokenTotalWeight, tokenUserWeight));
+            }
+
+            if (!readOnlyContext) {
+                externalUserWeight.at(dbKey).at(token).set(user, tokenTotalWeight);
             }
         }
 
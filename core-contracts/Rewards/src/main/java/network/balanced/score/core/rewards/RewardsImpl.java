@@ -64,6 +64,8 @@ public class RewardsImpl implements Rewards {
     private static final String EXTERNAL_HOLDINGS = "external_holdings";
     private static final String EXTERNAL_REWARD_PROVIDERS = "external_reward_providers";
     private static final String EXTERNAL_REWARD_TOKENS = "external_reward_tokens";
+    private static final String EXTERNAL_HOLDING_TOKENS = "external_holding_tokens";
+    private static final String EXTERNAL_HOLDINGS_INDEXED = "external_holdings_indexed";
     private static final String PLATFORM_DAY = "platform_day";
     private static final String DATA_PROVIDERS = "data_providers";
     private static final String BOOST_WEIGHT = "boost_weight";
@@ -78,6 +80,9 @@ public class RewardsImpl implements Rewards {
     static final BranchDB<String, DictDB<Address, BigInteger>> externalHoldings = Context.newBranchDB(EXTERNAL_HOLDINGS, BigInteger.class);
     static final DictDB<Address, Boolean> externalRewardProviders = Context.newDictDB(EXTERNAL_REWARD_PROVIDERS, Boolean.class);
     static final IterableDictDB<Address, Boolean> externalRewardTokens = new IterableDictDB<>(EXTERNAL_REWARD_TOKENS, Boolean.class, Address.class, false);
+    // user -> external tokens with non-zero holdings, complete once the user is marked as indexed
+    static final BranchDB<String, ArrayDB<Address>> externalHoldingTokens = Context.newBranchDB(EXTERNAL_HOLDING_TOKENS, Address.class);
+    static final DictDB<String, Boolean> externalHoldingsIndexed = Context.newDictDB(EXTERNAL_HOLDINGS_INDEXED, Boolean.class);
 
     private static final VarDB<BigInteger> platformDay = Context.newVarDB(PLATFORM_DAY, BigInteger.class);
     private final static SetDB<Address> dataProviders = new SetDB<>(DATA_PROVIDERS, Address.class, null);
@@ -217,6 +222,79 @@ public class RewardsImpl implements Rewards {
         return accruedRewards;
     }
 
+    /**
+     * Accrued rewards of several holders in a compact form. "tokens" lists the reward tokens, BALN first, and
+     * "rewards" holds one row per holder, in the order given, with the accrued amount of each token in that order.
+     */
+    @External(readonly = true)
+    public Map<String, Object> getRewardsBatch(String[] _holders) {
+        BigInteger currentTime = getTime();
+        Address baln = getBaln();
+        List<Address> externalTokens = externalRewardTokens.keys();
+        List<Address> tokens = new ArrayList<>(externalTokens.size() + 1);
+        List<String> tokenNames = new ArrayList<>(externalTokens.size() + 1);
+        tokens.add(baln);
+        tokenNames.add(baln.toString());
+        for (Address token : externalTokens) {
+            if (!token.equals(baln)) {
+                tokens.add(token);
+                tokenNames.add(token.toString());
+            }
+        }
+
+        int dataSourcesCount = DataSourceDB.size();
+        List<DataSourceImpl> dataSources = new ArrayList<>(dataSourcesCount);
+        List<Address[]> sourceTokens = new ArrayList<>(dataSourcesCount);
+        List<Map<Address, BigInteger>> totalWeights = new ArrayList<>(dataSourcesCount);
+        for (int i = 0; i < dataSourcesCount; i++) {
+            DataSourceImpl dataSource = DataSourceDB.get(DataSourceDB.names.get(i));
+            Address[] rewardTokens = dataSource.getRewardTokens();
+            dataSources.add(dataSource);
+            sourceTokens.add(rewardTokens);
+            totalWeights.add(dataSource.getCurrentTotalWeights(currentTime, rewardTokens));
+        }
+
+        List<List<BigInteger>> rewards = new ArrayList<>(_holders.length);
+        for (String holder : _holders) {
+            DictDB<Address, BigInteger> holdingsDB = externalHoldings.at(holder);
+            Map<Address, BigInteger> accruedRewards = new HashMap<>();
+            for (Address token : externalTokens) {
+                accruedRewards.put(token, holdingsDB.getOrDefault(token, BigInteger.ZERO));
+            }
+
+            accruedRewards.put(baln, balnHoldings.getOrDefault(holder, BigInteger.ZERO));
+
+            for (int i = 0; i < dataSourcesCount; i++) {
+                DataSourceImpl dataSource = dataSources.get(i);
+                BalanceData balances = new BalanceData();
+                balances.prevWorkingBalance = dataSource.getWorkingBalance(holder);
+                if (balances.prevWorkingBalance.compareTo(BigInteger.ZERO) <= 0) {
+                    continue;
+                }
+
+                balances.prevBalance = dataSource.getBalance(holder);
+                Map<Address, BigInteger> sourceRewards = dataSource.computeAccruedRewards(holder, balances,
+                        totalWeights.get(i), sourceTokens.get(i), true);
+                for (Map.Entry<Address, BigInteger> entry : sourceRewards.entrySet()) {
+                    Address token = entry.getKey();
+                    accruedRewards.put(token, accruedRewards.get(token).add(entry.getValue()));
+                }
+            }
+
+            List<BigInteger> row = new ArrayList<>(tokens.size());
+            for (Address token : tokens) {
+                row.add(accruedRewards.get(token));
+            }
+
+            rewards.add(row);
+        }
+
+        return Map.of(
+                "tokens", tokenNames,
+                "rewards", rewards
+        );
+    }
+
     @External(readonly = true)
     public List<String> getDataSourceNames() {
         List<String> names = new ArrayList<>();
@@ -346,43 +424,69 @@ public class RewardsImpl implements Rewards {
         BigInteger platformDay = RewardsImpl.platformDay.get();
         BigInteger day = getDay();
 
-        while (platformDay.compareTo(day) <= 0) {
-            mintAndAllocateBalnReward(platformDay);
-            platformDay = RewardsImpl.platformDay.get();
+        if (platformDay.compareTo(day) <= 0) {
+            mintAndAllocateBalnReward(platformDay, day);
         }
 
         return true;
     }
 
-    private boolean mintAndAllocateBalnReward(BigInteger platformDay) {
-        BigInteger distribution = dailyDistribution(platformDay);
-        Context.call(getBaln(), "mint", distribution, new byte[0]);
-
-        BigInteger shares = HUNDRED_PERCENTAGE;
-        BigInteger remaining = distribution;
+    /**
+     * Allocates the emission of every day from startDay to endDay. The daily splits are recorded per day, while the
+     * BALN for the whole range is minted and transferred to each recipient only once.
+     */
+    private void mintAndAllocateBalnReward(BigInteger startDay, BigInteger endDay) {
         List<String> recipients = distributionPercentages.keys();
-        for (String recipient : recipients) {
-            BigInteger split = distributionPercentages.get(recipient);
-            BigInteger share = split.multiply(remaining).divide(shares);
-            Context.call(getBaln(), "transfer", BalancedAddressManager.getAddress(recipient), share, new byte[0]);
-            remaining = remaining.subtract(share);
-            shares = shares.subtract(split);
+        int recipientCount = recipients.size();
+        BigInteger[] splits = new BigInteger[recipientCount];
+        BigInteger[] recipientShares = new BigInteger[recipientCount];
+        for (int i = 0; i < recipientCount; i++) {
+            splits[i] = distributionPercentages.get(recipients.get(i));
+            recipientShares[i] = BigInteger.ZERO;
         }
 
         List<String> fixedPercentageSources = fixedDistributionPercentages.keys();
-        for (String recipient : fixedPercentageSources) {
-            BigInteger split = fixedDistributionPercentages.get(recipient);
-            BigInteger share = split.multiply(remaining).divide(shares);
-            dailyFixedDistribution.at(recipient).set(platformDay, share);
-            remaining = remaining.subtract(share);
-            shares = shares.subtract(split);
+        int fixedSourceCount = fixedPercentageSources.size();
+        BigInteger[] fixedSplits = new BigInteger[fixedSourceCount];
+        for (int i = 0; i < fixedSourceCount; i++) {
+            fixedSplits[i] = fixedDistributionPercentages.get(fixedPercentageSources.get(i));
         }
 
-        dailyVotableDistribution.set(platformDay, remaining);
+        BigInteger totalDistribution = BigInteger.ZERO;
+        for (BigInteger platformDay = startDay; platformDay.compareTo(endDay) <= 0;
+             platformDay = platformDay.add(BigInteger.ONE)) {
+            BigInteger distribution = dailyDistribution(platformDay);
+            totalDistribution = totalDistribution.add(distribution);
+
+            BigInteger shares = HUNDRED_PERCENTAGE;
+            BigInteger remaining = distribution;
+            for (int i = 0; i < recipientCount; i++) {
+                BigInteger share = splits[i].multiply(remaining).divide(shares);
+                recipientShares[i] = recipientShares[i].add(share);
+                remaining = remaining.subtract(share);
+                shares = shares.subtract(splits[i]);
+            }
 
-        RewardsImpl.platformDay.set(platformDay.add(BigInteger.ONE));
+            for (int i = 0; i < fixedSourceCount; i++) {
+                BigInteger share = fixedSplits[i].multiply(remaining).divide(shares);
+                dailyFixedDistribution.at(fixedPercentageSources.get(i)).set(platformDay, share);
+                remaining = remaining.subtract(share);
+                shares = shares.subtract(fixedSplits[i]);
+            }
 
-        return false;
+            dailyVotableDistribution.set(platformDay, remaining);
+        }
+
+        Address baln = getBaln();
+        Context.call(baln, "mint", totalDistribution, new byte[0]);
+        for (int i = 0; i < recipientCount; i++) {
+            if (recipientShares[i].signum() > 0) {
+                Context.call(baln, "transfer", BalancedAddressManager.getAddress(recipients.get(i)),
+                        recipientShares[i], new byte[0]);
+            }
+        }
+
+        RewardsImpl.platformDay.set(endDay.add(BigInteger.ONE));
     }
 
     @External
@@ -424,8 +528,23 @@ public class RewardsImpl implements Rewards {
         BigInteger boostedSupply = fetchBoostedSupply();
         updateAllUserRewards(address, sources, boostedBalance, boostedSupply);
 
-        List<Address> tokens = externalRewardTokens.keys();
         DictDB<Address, BigInteger> holdingsDB = externalHoldings.at(address);
+        ArrayDB<Address> heldTokens = externalHoldingTokens.at(address);
+        int heldCount = heldTokens.size();
+        List<Address> tokens = new ArrayList<>(heldCount);
+        for (int i = 0; i < heldCount; i++) {
+            tokens.add(heldTokens.get(i));
+        }
+
+        if (!externalHoldingsIndexed.getOrDefault(address, false)) {
+            // Holdings accrued before the index existed are only found by a full scan, done once per user
+            for (Address token : externalRewardTokens.keys()) {
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+            }
+            externalHoldingsIndexed.set(address, true);
+        }
 
         for (Address token : tokens) {
             BigInteger amount = holdingsDB.getOrDefault(token, BigInteger.ZERO);
@@ -436,6 +555,11 @@ public class RewardsImpl implements Rewards {
             }
         }
 
+        // Every indexed token was in the list above, so all of them have been paid out
+        while (heldTokens.size() > 0) {
+            heldTokens.pop();
+        }
+
         BigInteger userClaimableRewards = balnHoldings.getOrDefault(address, BigInteger.ZERO);
         if (userClaimableRewards.compareTo(BigInteger.ZERO) > 0) {
             balnHoldings.set(address, null);
@@ -555,11 +679,17 @@ public class RewardsImpl implements Rewards {
         distribute();
 
         BigInteger boostedSupply = fetchBoostedSupply();
+        Address[] users = new Address[_data.length];
+        for (int i = 0; i < _data.length; i++) {
+            users[i] = _data[i]._user;
+        }
 
-        for (RewardsDataEntryOld entry : _data) {
+        BigInteger[] boostedBalances = fetchBoostedBalances(users);
+        for (int i = 0; i < _data.length; i++) {
+            RewardsDataEntryOld entry = _data[i];
             BalanceData balances = new BalanceData();
             balances.boostedSupply = boostedSupply;
-            balances.boostedBalance = fetchBoostedBalance(entry._user);
+            balances.boostedBalance = boostedBalances[i];
             String user = entry._user.toString();
             Map<String, BigInteger> balanceAndSupply = dataSource.loadCurrentSupply(user);
             balances.balance = balanceAndSupply.get(BALANCE);
@@ -607,10 +737,16 @@ public class RewardsImpl implements Rewards {
         distribute();
 
         BigInteger boostedSupply = fetchBoostedSupply();
+        Address[] users = new Address[_data.length];
+        for (int i = 0; i < _data.length; i++) {
+            users[i] = getNativeAddress(_data[i]._user);
+        }
 
-        for (RewardsDataEntry entry : _data) {
+        BigInteger[] boostedBalances = fetchBoostedBalances(users);
+        for (int i = 0; i < _data.length; i++) {
+            RewardsDataEntry entry = _data[i];
             BalanceData balances = new BalanceData();
-            balances.boostedBalance = fetchBoostedBalance(entry._user);
+            balances.boostedBalance = boostedBalances[i];
             balances.boostedSupply = boostedSupply;
             balances.balance = entry._balance;
             balances.supply = _totalSupply;
@@ -647,6 +783,18 @@ public class RewardsImpl implements Rewards {
         updateAllUserRewards(user.toString(), getAllSources(), balance, boostedSupply);
     }
 
+    @External
+    public void onBalanceUpdateBatch(Address[] users, BigInteger[] balances) {
+        checkStatus();
+        only(getBoostedBaln());
+        Context.require(users.length == balances.length, TAG + ": Users and balances must have the same length");
+        BigInteger boostedSupply = fetchBoostedSupply();
+        String[] sources = getAllSources();
+        for (int i = 0; i < users.length; i++) {
+            updateAllUserRewards(users[i].toString(), sources, balances[i], boostedSupply);
+        }
+    }
+
     @External
     public void setBoostWeight(BigInteger weight) {
         onlyOwner();
@@ -766,6 +914,12 @@ public class RewardsImpl implements Rewards {
         SourceWeightController.checkpoint();
     }
 
+    @External
+    public void checkpointWeeks(int maxWeeks) {
+        checkStatus();
+        SourceWeightController.checkpoint(maxWeeks);
+    }
+
     @External
     public void checkpointSource(String name) {
         checkStatus();
@@ -909,7 +1063,7 @@ public class RewardsImpl implements Rewards {
             }
 
             BalanceData balances = new BalanceData();
-            balances.boostedBalance = fetchBoostedBalance(user);
+            balances.boostedBalance = boostedBalance;
             balances.boostedSupply = boostedSupply;
             Map<String, BigInteger> balanceAndSupply = dataSource.loadCurrentSupply(user);
             balances.balance = balanceAndSupply.get(BALANCE);
@@ -940,7 +1094,15 @@ public class RewardsImpl implements Rewards {
         }
         DictDB<Address, BigInteger> externalHoldingsDB = externalHoldings.at(user);
         for (Map.Entry<Address, BigInteger> entry : accruedRewards.entrySet()) {
+            if (entry.getValue().signum() == 0) {
+                continue;
+            }
+
             BigInteger prevRewards = externalHoldingsDB.getOrDefault(entry.getKey(), BigInteger.ZERO);
+            if (prevRewards.signum() == 0) {
+                externalHoldingTokens.at(user).add(entry.getKey());
+            }
+
             externalHoldingsDB.set(entry.getKey(), prevRewards.add(entry.getValue()));
         }
 
@@ -1023,14 +1185,23 @@ public class RewardsImpl implements Rewards {
         }
     }
 
-    private BigInteger fetchBoostedBalance(String user) {
+    private Address getNativeAddress(String user) {
         NetworkAddress networkAddress = NetworkAddress.valueOf(user, NATIVE_NID);
         Address address = null;
         try {
             address = Address.fromString(user);
         } catch (Exception ignored) {
         }
-        if (!networkAddress.net().equals(NATIVE_NID) || address == null) {
+        if (!networkAddress.net().equals(NATIVE_NID)) {
+            return null;
+        }
+
+        return address;
+    }
+
+    private BigInteger fetchBoostedBalance(String user) {
+        Address address = getNativeAddress(user);
+        if (address == null) {
             return BigInteger.ZERO;
         }
 
@@ -1045,6 +1216,57 @@ public class RewardsImpl implements Rewards {
         }
     }
 
+    /**
+     * Fetches the boosted balances of several users with a single call to bBaln. Users without a native address
+     * are not sent and get a boosted balance of zero. If the batch call fails, each user is fetched on its own.
+     */
+    @SuppressWarnings("unchecked")
+    private BigInteger[] fetchBoostedBalances(Address[] users) {
+        BigInteger[] boostedBalances = new BigInteger[users.length];
+        List<Address> nativeUsers = new ArrayList<>();
+        for (int i = 0; i < users.length; i++) {
+            boostedBalances[i] = BigInteger.ZERO;
+            if (users[i] != null) {
+                nativeUsers.add(users[i]);
+            }
+        }
+
+        if (nativeUsers.isEmpty()) {
+            return boostedBalances;
+        }
+
+        Address[] batch = new Address[nativeUsers.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = nativeUsers.get(i);
+        }
+
+        List<BigInteger> result;
+        try {
+            result = (List<BigInteger>) RewardsImpl.call(getBoostedBaln(), "balanceOfBatch", batch, BigInteger.ZERO);
+        } catch (Exception e) {
+            result = null;
+        }
+
+        if (result == null || result.size() != batch.length) {
+            for (int i = 0; i < users.length; i++) {
+                if (users[i] != null) {
+                    boostedBalances[i] = fetchBoostedBalance(users[i]);
+                }
+            }
+
+            return boostedBalances;
+        }
+
+        int index = 0;
+        for (int i = 0; i < users.length; i++) {
+            if (users[i] != null) {
+                boostedBalances[i] = result.get(index++);
+            }
+        }
+
+        return boostedBalances;
+    }
+
     private BigInteger fetchBoostedSupply() {
         try {
             return (BigInteger) RewardsImpl.call(getBoostedBaln(), "totalSupply", BigInteger.ZERO);
@@ -37,6 +37,8 @@ public class SourceWeightController {
     // Cannot change weight votes more often than once in 10 days
     public static final BigInteger WEIGHT_VOTE_DELAY = MICRO_SECONDS_IN_A_DAY.multiply(BigInteger.TEN);
     public static final BigInteger VOTE_POINTS = BigInteger.valueOf(10000);
+    // Upper bound on the number of weeks walked when looking up or extrapolating a checkpoint
+    public static final int MAX_CHECKPOINT_WEEKS = 500;
 
     // sourceTypeNames: public(HashMap.get(int128, String[64]))
     private static final EnumerableSetDB<String> sourceTypeNames = new EnumerableSetDB<>("sourceTypeNames",
@@ -63,6 +65,8 @@ public class SourceWeightController {
     // changes* are for changes in slope
     // time* are for the last change timestamp
     // timestamps are rounded to whole weeks
+    // Points are only stored at checkpoints, previous* link each checkpoint to the one before it and weeks in
+    // between are extrapolated on demand
 
     private static final BranchDB<String, DictDB<BigInteger, Point>> pointsWeight = Context.newBranchDB("pointsWeight"
             , Point.class);
@@ -72,6 +76,9 @@ public class SourceWeightController {
 
     private static final DictDB<String, BigInteger> timeWeight = Context.newDictDB("timeWeight", BigInteger.class);
 
+    private static final BranchDB<String, DictDB<BigInteger, BigInteger>> pointsWeightPrevious = Context.newBranchDB(
+            "pointsWeightPrevious", BigInteger.class);
+
     private static final BranchDB<Integer, DictDB<BigInteger, Point>> pointsSum = Context.newBranchDB("pointsSum",
             Point.class);
 
@@ -80,6 +87,9 @@ public class SourceWeightController {
 
     private static final DictDB<Integer, BigInteger> timeSum = Context.newDictDB("timeSum", BigInteger.class);
 
+    private static final BranchDB<Integer, DictDB<BigInteger, BigInteger>> pointsSumPrevious = Context.newBranchDB(
+            "pointsSumPrevious", BigInteger.class);
+
 
     // time -> total weight
     private static final DictDB<BigInteger, BigInteger> pointsTotal = Context.newDictDB("pointsTotal",
@@ -92,6 +102,8 @@ public class SourceWeightController {
             "pointsTypeWeight", BigInteger.class);
     private static final DictDB<Integer, BigInteger> timeTypeWeight = Context.newDictDB("timeTypeWeight",
             BigInteger.class);
+    private static final BranchDB<Integer, DictDB<BigInteger, BigInteger>> pointsTypeWeightPrevious =
+            Context.newBranchDB("pointsTypeWeightPrevious", BigInteger.class);
 
 
 
@@ -100,51 +112,54 @@ public class SourceWeightController {
     }
 
     /**
-     * Fill historic type weights week-over-week for missed checkins and return the type weight for the future week
+     * Find the latest stored checkpoint at or before `time` by following the links between sparse checkpoints.
+     * Checkpoints written before links were introduced are stored for every week, so a week inside such a series is
+     * read directly, and reaching an unlinked checkpoint after `time` means `time` is before the series started.
      *
-     * @param sourceType Source type id
-     * @return Type weight
+     * @param points   Stored points of the series
+     * @param previous Links from each checkpoint to the one before it
+     * @param last     Latest checkpoint of the series
+     * @param time     Week timestamp to look up
+     * @return Timestamp of the checkpoint to extrapolate from, zero if there is none
      */
-    private static BigInteger getTypeWeight(int sourceType) {
-        BigInteger time = timeTypeWeight.getOrDefault(sourceType, BigInteger.ZERO);
-        if (time.compareTo(BigInteger.ZERO) <= 0) {
-            return BigInteger.ZERO;
+    private static BigInteger lastCheckpoint(DictDB<BigInteger, ?> points, DictDB<BigInteger, BigInteger> previous,
+                                             BigInteger last, BigInteger time) {
+        if (last.compareTo(time) <= 0) {
+            return last;
         }
 
-        BigInteger timestamp = BigInteger.valueOf(Context.getBlockTimestamp());
-        BigInteger weight = pointsTypeWeight.at(sourceType).get(time);
-        for (int i = 0; i < 500; i++) {
-            if (time.compareTo(timestamp) > 0) {
-                break;
+        if (points.get(time) != null) {
+            return time;
+        }
+
+        BigInteger checkpoint = last;
+        for (int i = 0; i < MAX_CHECKPOINT_WEEKS; i++) {
+            if (checkpoint.compareTo(time) <= 0) {
+                return checkpoint;
             }
 
-            time = time.add(WEEK);
-            pointsTypeWeight.at(sourceType).set(time, weight);
-            if (time.compareTo(timestamp) > 0) {
-                timeTypeWeight.set(sourceType, time);
+            checkpoint = previous.get(checkpoint);
+            if (checkpoint == null) {
+                return BigInteger.ZERO;
             }
         }
 
-        return weight;
+        return BigInteger.ZERO;
     }
 
     /**
-     * Fill sum of source weights for the same type week-over-week for missed checkins and return the sum for the
-     * future week
+     * Apply weekly decay and scheduled slope changes to a checkpointed point without writing anything
      *
-     * @param sourceType Source type id
-     * @return Sum of weights
+     * @param pt      Point stored at `from`
+     * @param from    Week timestamp of the stored point
+     * @param to      Week timestamp to extrapolate to
+     * @param changes Scheduled slope changes of the series
+     * @return Point at `to`
      */
-    private static BigInteger getSum(int sourceType) {
-        BigInteger time = timeSum.getOrDefault(sourceType, BigInteger.ZERO);
-        BigInteger timeStamp = BigInteger.valueOf(Context.getBlockTimestamp());
-        if (time.compareTo(BigInteger.ZERO) <= 0) {
-            return BigInteger.ZERO;
-        }
-
-        Point pt = pointsSum.at(sourceType).getOrDefault(time, new Point());
-        for (int i = 0; i < 500; i++) {
-            if (time.compareTo(timeStamp) > 0) {
+    private static Point extrapolate(Point pt, BigInteger from, BigInteger to, DictDB<BigInteger, BigInteger> changes) {
+        BigInteger time = from;
+        for (int i = 0; i < MAX_CHECKPOINT_WEEKS; i++) {
+            if (time.compareTo(to) >= 0 || (pt.bias.signum() == 0 && pt.slope.signum() == 0)) {
                 break;
             }
 
@@ -152,102 +167,259 @@ public class SourceWeightController {
             BigInteger dBias = pt.slope.multiply(WEEK);
             if (pt.bias.compareTo(dBias) > 0) {
                 pt.bias = pt.bias.subtract(dBias);
-                BigInteger dSlope = changesSum.at(sourceType).getOrDefault(time, BigInteger.ZERO);
+                BigInteger dSlope = changes.getOrDefault(time, BigInteger.ZERO);
                 pt.slope = pt.slope.subtract(dSlope);
             } else {
                 pt.bias = BigInteger.ZERO;
                 pt.slope = BigInteger.ZERO;
             }
+        }
 
-            pointsSum.at(sourceType).set(time, pt);
-            if (time.compareTo(timeStamp) > 0) {
-                timeSum.set(sourceType, time);
-            }
+        return pt;
+    }
+
+    /**
+     * Type weight at a week, read from the latest change at or before it
+     *
+     * @param sourceType Source type id
+     * @param time       Week timestamp
+     * @return Type weight
+     */
+    private static BigInteger typeWeightAt(int sourceType, BigInteger time) {
+        BigInteger last = timeTypeWeight.getOrDefault(sourceType, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return BigInteger.ZERO;
         }
 
-        return pt.bias;
+        BigInteger checkpoint = lastCheckpoint(pointsTypeWeight.at(sourceType),
+                pointsTypeWeightPrevious.at(sourceType), last, time);
+        return pointsTypeWeight.at(sourceType).getOrDefault(checkpoint, BigInteger.ZERO);
     }
 
     /**
-     * Fill historic total weights week-over-week for missed checkins and return the total for the future week
+     * Sum of source weights for a type at a week, extrapolated from the latest checkpoint at or before it
      *
+     * @param sourceType Source type id
+     * @param time       Week timestamp
+     * @return Sum of weights
+     */
+    private static Point sumAt(int sourceType, BigInteger time) {
+        BigInteger last = timeSum.getOrDefault(sourceType, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return new Point();
+        }
+
+        BigInteger checkpoint = lastCheckpoint(pointsSum.at(sourceType), pointsSumPrevious.at(sourceType), last,
+                time);
+        Point pt = pointsSum.at(sourceType).getOrDefault(checkpoint, new Point());
+        return extrapolate(pt, checkpoint, time, changesSum.at(sourceType));
+    }
+
+    /**
+     * Source weight at a week, extrapolated from the latest checkpoint at or before it
+     *
+     * @param source Name of the source
+     * @param time   Week timestamp
+     * @return Source weight
+     */
+    private static Point weightAt(String source, BigInteger time) {
+        BigInteger last = timeWeight.getOrDefault(source, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return new Point();
+        }
+
+        BigInteger checkpoint = lastCheckpoint(pointsWeight.at(source), pointsWeightPrevious.at(source), last, time);
+        Point pt = pointsWeight.at(source).getOrDefault(checkpoint, new Point());
+        return extrapolate(pt, checkpoint, time, changesWeight.at(source));
+    }
+
+    /**
+     * Total weight at a week, read from storage if it has been checkpointed and computed from the type sums otherwise
+     *
+     * @param time Week timestamp
      * @return Total weight
      */
-    private static BigInteger getTotal() {
-        BigInteger time = timeTotal.getOrDefault(BigInteger.ZERO);
-        BigInteger timestamp = BigInteger.valueOf(Context.getBlockTimestamp());
-        if (time.compareTo(timestamp) > 0) {
-            // If we have already check pointed - still need to change the value
-            time = time.subtract(WEEK);
+    private static BigInteger totalAt(BigInteger time) {
+        BigInteger total = pointsTotal.get(time);
+        if (total != null) {
+            return total;
         }
-        BigInteger pt = pointsTotal.getOrDefault(time, BigInteger.ZERO);
 
+        total = BigInteger.ZERO;
         int nrSourceTypes = sourceTypeNames.length();
         for (int id = 0; id < nrSourceTypes; id++) {
-            getSum(id);
-            getTypeWeight(id);
+            total = total.add(sumAt(id, time).bias.multiply(typeWeightAt(id, time)));
         }
 
-        for (int i = 0; i < 500; i++) {
-            if (time.compareTo(timestamp) > 0) {
-                break;
-            }
+        return total;
+    }
 
-            time = time.add(WEEK);
-            pt = BigInteger.ZERO;
-            for (int id = 0; id < nrSourceTypes; id++) {
-                BigInteger typeSum = pointsSum.at(id).getOrDefault(time, new Point()).bias;
-                BigInteger typeWeight = pointsTypeWeight.at(id).getOrDefault(time, BigInteger.ZERO);
+    private static void setTypeWeight(int sourceType, BigInteger time, BigInteger weight) {
+        BigInteger last = timeTypeWeight.getOrDefault(sourceType, BigInteger.ZERO);
+        if (time.compareTo(last) > 0) {
+            pointsTypeWeightPrevious.at(sourceType).set(time, last);
+            timeTypeWeight.set(sourceType, time);
+        }
 
-                pt = pt.add(typeSum.multiply(typeWeight));
-            }
+        pointsTypeWeight.at(sourceType).set(time, weight);
+    }
 
-            pointsTotal.set(time, pt);
+    private static void setSumPoint(int sourceType, BigInteger time, Point pt) {
+        BigInteger last = timeSum.getOrDefault(sourceType, BigInteger.ZERO);
+        if (time.compareTo(last) > 0) {
+            pointsSumPrevious.at(sourceType).set(time, last);
+            timeSum.set(sourceType, time);
+        }
 
-            if (time.compareTo(timestamp) > 0) {
-                timeTotal.set(time);
-            }
+        pointsSum.at(sourceType).set(time, pt);
+    }
+
+    private static void setWeightPoint(String source, BigInteger time, Point pt) {
+        BigInteger last = timeWeight.getOrDefault(source, BigInteger.ZERO);
+        if (time.compareTo(last) > 0) {
+            pointsWeightPrevious.at(source).set(time, last);
+            timeWeight.set(source, time);
+        }
+
+        pointsWeight.at(source).set(time, pt);
+    }
+
+    private static void setTotal(BigInteger time, BigInteger total) {
+        pointsTotal.set(time, total);
+        if (time.compareTo(timeTotal.getOrDefault(BigInteger.ZERO)) > 0) {
+            timeTotal.set(time);
+        }
+    }
+
+    /**
+     * Store the type weight at `time` if the series has not been checkpointed that far yet
+     *
+     * @param sourceType Source type id
+     * @param time       Week timestamp
+     * @return Type weight at `time`
+     */
+    private static BigInteger checkpointTypeWeight(int sourceType, BigInteger time) {
+        BigInteger last = timeTypeWeight.getOrDefault(sourceType, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return BigInteger.ZERO;
+        }
+
+        BigInteger weight = typeWeightAt(sourceType, time);
+        if (time.compareTo(last) > 0) {
+            setTypeWeight(sourceType, time, weight);
+        }
+
+        return weight;
+    }
+
+    /**
+     * Store the sum of source weights at `time` if the series has not been checkpointed that far yet. Only one point
+     * is written no matter how many weeks were missed.
+     *
+     * @param sourceType Source type id
+     * @param time       Week timestamp
+     * @return Sum of weights at `time`
+     */
+    private static Point checkpointSum(int sourceType, BigInteger time) {
+        BigInteger last = timeSum.getOrDefault(sourceType, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return new Point();
+        }
+
+        Point pt = sumAt(sourceType, time);
+        if (time.compareTo(last) > 0) {
+            setSumPoint(sourceType, time, pt);
         }
 
         return pt;
     }
 
     /**
-     * Fill historic source weights week-over-week for missed checkins and return the total for the future week
+     * Store the source weight at `time` if the series has not been checkpointed that far yet. Only one point is
+     * written no matter how many weeks were missed.
      *
      * @param source Name of the source
-     * @return Source weight
+     * @param time   Week timestamp
+     * @return Source weight at `time`
      */
-    private static BigInteger getWeight(String source) {
-        BigInteger time = timeWeight.getOrDefault(source, BigInteger.ZERO);
-        BigInteger timestamp = BigInteger.valueOf(Context.getBlockTimestamp());
-        if (time.compareTo(BigInteger.ZERO) <= 0) {
-            return BigInteger.ZERO;
+    private static Point checkpointWeight(String source, BigInteger time) {
+        BigInteger last = timeWeight.getOrDefault(source, BigInteger.ZERO);
+        if (last.compareTo(BigInteger.ZERO) <= 0) {
+            return new Point();
         }
 
-        Point pt = pointsWeight.at(source).getOrDefault(time, new Point());
-        for (int i = 0; i < 500; i++) {
-            if (time.compareTo(timestamp) > 0) {
-                break;
-            }
-            time = time.add(WEEK);
-            BigInteger dBias = pt.slope.multiply(WEEK);
-            if (pt.bias.compareTo(dBias) > 0) {
-                pt.bias = pt.bias.subtract(dBias);
-                BigInteger dSlope = changesWeight.at(source).getOrDefault(time, BigInteger.ZERO);
-                pt.slope = pt.slope.subtract(dSlope);
-            } else {
-                pt.bias = BigInteger.ZERO;
-                pt.slope = BigInteger.ZERO;
-            }
+        Point pt = weightAt(source, time);
+        if (time.compareTo(last) > 0) {
+            setWeightPoint(source, time, pt);
+        }
 
-            pointsWeight.at(source).set(time, pt);
-            if (time.compareTo(timestamp) > 0) {
-                timeWeight.set(source, time);
-            }
+        return pt;
+    }
+
+    /**
+     * Store the total weight at `time` if it has not been checkpointed that far yet
+     *
+     * @param time Week timestamp
+     * @return Total weight at `time`
+     */
+    private static BigInteger checkpointTotal(BigInteger time) {
+        BigInteger total = totalAt(time);
+        if (time.compareTo(timeTotal.getOrDefault(BigInteger.ZERO)) > 0) {
+            setTotal(time, total);
         }
 
-        return pt.bias;
+        return total;
+    }
+
+    /**
+     * Checkpoint the type weight for the current and the future week and return the type weight for the future week
+     *
+     * @param sourceType Source type id
+     * @return Type weight
+     */
+    private static BigInteger getTypeWeight(int sourceType) {
+        checkpointTypeWeight(sourceType, getWeekTimestamp());
+        return checkpointTypeWeight(sourceType, getNextWeekTimestamp());
+    }
+
+    /**
+     * Checkpoint the sum of source weights for the same type for the current and the future week and return the sum
+     * for the future week
+     *
+     * @param sourceType Source type id
+     * @return Sum of weights
+     */
+    private static BigInteger getSum(int sourceType) {
+        checkpointSum(sourceType, getWeekTimestamp());
+        return checkpointSum(sourceType, getNextWeekTimestamp()).bias;
+    }
+
+    /**
+     * Checkpoint type weights, sums and the total for the current and the future week and return the total for the
+     * future week
+     *
+     * @return Total weight
+     */
+    private static BigInteger getTotal() {
+        int nrSourceTypes = sourceTypeNames.length();
+        for (int id = 0; id < nrSourceTypes; id++) {
+            getSum(id);
+            getTypeWeight(id);
+        }
+
+        checkpointTotal(getWeekTimestamp());
+        return checkpointTotal(getNextWeekTimestamp());
+    }
+
+    /**
+     * Checkpoint the source weight for the current and the future week and return the weight for the future week
+     *
+     * @param source Name of the source
+     * @return Source weight
+     */
+    private static BigInteger getWeight(String source) {
+        checkpointWeight(source, getWeekTimestamp());
+        return checkpointWeight(source, getNextWeekTimestamp()).bias;
     }
 
     /**
@@ -271,14 +443,12 @@ public class SourceWeightController {
 
             Point ptSum = pointsSum.at(sourceType).getOrDefault(nextTime, new Point());
             ptSum.bias = weight.add(oldSum);
-            pointsSum.at(sourceType).set(nextTime, ptSum);
-            timeSum.set(sourceType, nextTime);
-            pointsTotal.set(nextTime, oldTotal.add(typeWeight.multiply(weight)));
-            timeTotal.set(nextTime);
+            setSumPoint(sourceType, nextTime, ptSum);
+            setTotal(nextTime, oldTotal.add(typeWeight.multiply(weight)));
 
             Point weightPoint = pointsWeight.at(name).getOrDefault(nextTime, new Point());
             weightPoint.bias = weight;
-            pointsWeight.at(name).set(nextTime, weightPoint);
+            setWeightPoint(name, nextTime, weightPoint);
         }
 
         if (timeSum.get(sourceType) == null) {
@@ -299,6 +469,38 @@ public class SourceWeightController {
         getTotal();
     }
 
+    /**
+     * Step-bounded checkpoint of the data common for all sources. Each type series is advanced by at most `maxWeeks`
+     * weeks towards the future week, so catching up after a long quiet period can be split over several calls.
+     *
+     * @param maxWeeks Maximum number of weeks to advance each series by
+     */
+    public static void checkpoint(int maxWeeks) {
+        Context.require(maxWeeks > 0, "maxWeeks has to be positive");
+        BigInteger nextTime = getNextWeekTimestamp();
+        BigInteger span = WEEK.multiply(BigInteger.valueOf(maxWeeks));
+
+        BigInteger lastTotal = timeTotal.getOrDefault(BigInteger.ZERO);
+        BigInteger totalTime = nextTime.min(lastTotal.add(span));
+        int nrSourceTypes = sourceTypeNames.length();
+        for (int id = 0; id < nrSourceTypes; id++) {
+            checkpointTypeWeight(id, nextTime);
+
+            BigInteger last = timeSum.getOrDefault(id, BigInteger.ZERO);
+            if (last.compareTo(BigInteger.ZERO) <= 0) {
+                continue;
+            }
+
+            BigInteger sumTime = nextTime.min(last.add(span));
+            checkpointSum(id, sumTime);
+            totalTime = totalTime.min(sumTime);
+        }
+
+        if (lastTotal.compareTo(BigInteger.ZERO) > 0 && totalTime.compareTo(lastTotal) > 0) {
+            checkpointTotal(totalTime);
+        }
+    }
+
     /**
      * Checkpoint to fill data for both a specific source and common for all sources
      *
@@ -324,14 +526,14 @@ public class SourceWeightController {
             time = getWeekTimestamp(time);
         }
 
-        BigInteger totalWeight = pointsTotal.getOrDefault(time, BigInteger.ZERO);
+        BigInteger totalWeight = totalAt(time);
         if (totalWeight.compareTo(BigInteger.ZERO) <= 0) {
             return BigInteger.ZERO;
         }
 
         int sourceType = sourceTypes.get(name) - 1;
-        BigInteger typeWeight = pointsTypeWeight.at(sourceType).get(time);
-        BigInteger sourceWeight = pointsWeight.at(name).getOrDefault(time, new Point()).bias;
+        BigInteger typeWeight = typeWeightAt(sourceType, time);
+        BigInteger sourceWeight = weightAt(name, time).bias;
         return EXA.multiply(typeWeight).multiply(sourceWeight).divide(totalWeight);
     }
 
@@ -363,10 +565,8 @@ public class SourceWeightController {
         BigInteger nextTime = (timestamp.add(WEEK)).divide(WEEK).multiply(WEEK);
 
         totalWeight = totalWeight.add(oldSum.multiply(weight)).subtract(oldSum.multiply(oldWeight));
-        pointsTotal.set(nextTime, totalWeight);
-        pointsTypeWeight.at(typeId).set(nextTime, weight);
-        timeTotal.set(nextTime);
-        timeTypeWeight.set(typeId, nextTime);
+        setTotal(nextTime, totalWeight);
+        setTypeWeight(typeId, nextTime, weight);
 
         rewards.NewTypeWeight(typeId, nextTime, oldWeight, totalWeight);
     }
@@ -445,6 +645,7 @@ public class SourceWeightController {
         BigInteger oldWeightSlope = pointsWeight.at(sourceName).getOrDefault(nextTime, new Point()).slope;
         BigInteger oldSumBias = getSum(sourceType);
         BigInteger oldSumSlope = pointsSum.at(sourceType).getOrDefault(nextTime, new Point()).slope;
+        BigInteger oldTotal = getTotal();
 
         Point weightPoint = pointsWeight.at(sourceName).getOrDefault(nextTime, new Point());
         weightPoint.bias = (oldWeightBias.add(newBias)).max(oldBias).subtract(oldBias);
@@ -473,10 +674,11 @@ public class SourceWeightController {
         BigInteger newSum = changesSum.at(sourceType).getOrDefault(newSlope.end, BigInteger.ZERO);
         changesSum.at(sourceType).set(newSlope.end, newSum.add(newSlope.slope));
 
-        pointsWeight.at(sourceName).set(nextTime, weightPoint);
-        pointsSum.at(sourceType).set(nextTime, sumPoint);
+        setWeightPoint(sourceName, nextTime, weightPoint);
+        setSumPoint(sourceType, nextTime, sumPoint);
 
-        getTotal();
+        BigInteger typeWeight = typeWeightAt(sourceType, nextTime);
+        setTotal(nextTime, oldTotal.add(typeWeight.multiply(sumPoint.bias.subtract(oldSumBias))));
 
         voteUserSlopes.at(user).set(sourceName, newSlope);
 
@@ -514,7 +716,7 @@ public class SourceWeightController {
     }
 
     public static Point getSourcePointsWeightAt(String sourceName, BigInteger time) {
-        return pointsWeight.at(sourceName).getOrDefault(time, new Point());
+        return weightAt(sourceName, getWeekTimestamp(time));
     }
 
     /**
@@ -146,6 +146,83 @@ class RewardsTestExternalRewards extends RewardsTestBase {
         assertEquals(expectedRewards.divide(BigInteger.valueOf(4)), rewards.get(mockBalanced.sicx.getAddress().toString()));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void externalRewards_claimOnlyHeldTokens() {
+        // Arrange
+        Account account = sm.createAccount();
+        Account supplyAccount = sm.createAccount();
+        BigInteger balance = BigInteger.TWO.multiply(EXA);
+        BigInteger totalSupply = BigInteger.TEN.multiply(EXA);
+        BigInteger sICXRewards = BigInteger.valueOf(1000).multiply(EXA);
+        BigInteger expectedRewards = BigInteger.valueOf(200).multiply(EXA);
+
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply.subtract(balance),
+                supplyAccount.getAddress().toString(), totalSupply.subtract(balance));
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply,
+                account.getAddress().toString(), balance);
+        mockBalanceAndSupply(dex, "sICX/ICX", account.getAddress(), balance, totalSupply);
+
+        List<Object> _data = new ArrayList<>(1);
+        _data.add(Map.of("source", "sICX/ICX", "amount", sICXRewards));
+        JSONArray data = new JSONArray(_data);
+
+        // Act
+        // first claim indexes the user, nothing has been distributed yet
+        rewardsScore.invoke(account, "claimRewards", getUserSources(account.getAddress()));
+        rewardsScore.invoke(mockBalanced.sicx.account, "tokenFallback", externalRewardsProvider.getAddress(),
+                sICXRewards, data.toString().getBytes());
+        nextDay();
+        nextDay();
+        rewardsScore.invoke(account, "claimRewards", getUserSources(account.getAddress()));
+        rewardsScore.invoke(account, "claimRewards", getUserSources(account.getAddress()));
+
+        // Assert
+        verify(mockBalanced.sicx.mock).transfer(account.getAddress(), expectedRewards, new byte[0]);
+        Map<String, BigInteger> holdings = (Map<String, BigInteger>) rewardsScore.call("getHoldings",
+                account.getAddress().toString());
+        assertEquals(BigInteger.ZERO, holdings.get(mockBalanced.sicx.getAddress().toString()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void externalRewards_claimDelistedToken() {
+        // Arrange
+        Account account = sm.createAccount();
+        Account supplyAccount = sm.createAccount();
+        BigInteger balance = BigInteger.TWO.multiply(EXA);
+        BigInteger totalSupply = BigInteger.TEN.multiply(EXA);
+        BigInteger sICXRewards = BigInteger.valueOf(1000).multiply(EXA);
+        BigInteger expectedRewards = BigInteger.valueOf(200).multiply(EXA);
+
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply.subtract(balance),
+                supplyAccount.getAddress().toString(), totalSupply.subtract(balance));
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply,
+                account.getAddress().toString(), balance);
+        mockBalanceAndSupply(dex, "sICX/ICX", account.getAddress(), balance, totalSupply);
+
+        List<Object> _data = new ArrayList<>(1);
+        _data.add(Map.of("source", "sICX/ICX", "amount", sICXRewards));
+        JSONArray data = new JSONArray(_data);
+        rewardsScore.invoke(mockBalanced.sicx.account, "tokenFallback", externalRewardsProvider.getAddress(),
+                sICXRewards, data.toString().getBytes());
+        nextDay();
+        nextDay();
+
+        // Act
+        // holdings accrue before the first claim, then the token is delisted
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply,
+                account.getAddress().toString(), balance);
+        rewardsScore.invoke(owner, "configureExternalReward", mockBalanced.sicx.getAddress(), false);
+        rewardsScore.invoke(account, "claimRewards", getUserSources(account.getAddress()));
+
+        // Assert
+        verify(mockBalanced.sicx.mock).transfer(account.getAddress(), expectedRewards, new byte[0]);
+        Map<String, BigInteger> holdings = (Map<String, BigInteger>) rewardsScore.call("getHoldings",
+                account.getAddress().toString());
+        assertEquals(BigInteger.ZERO, holdings.get(mockBalanced.sicx.getAddress().toString()));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void externalRewards_MultipleSources() {
@@ -17,6 +17,7 @@
 package network.balanced.score.core.rewards;
 
 import com.iconloop.score.test.Account;
+import network.balanced.score.lib.structs.Point;
 import network.balanced.score.lib.structs.RewardsDataEntry;
 import network.balanced.score.lib.structs.RewardsDataEntryOld;
 import network.balanced.score.lib.utils.Names;
@@ -24,12 +25,16 @@ import network.balanced.score.lib.utils.Names;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
+import score.Address;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
 import static network.balanced.score.core.rewards.utils.RewardsConstants.WEIGHT;
 import static network.balanced.score.core.rewards.weight.SourceWeightController.VOTE_POINTS;
+import static network.balanced.score.core.rewards.weight.SourceWeightController.WEEK;
 import static network.balanced.score.lib.utils.Constants.MICRO_SECONDS_IN_A_DAY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -53,12 +58,54 @@ class RewardsTestRewards extends RewardsTestBase {
         // Assert
         BigInteger emission = (BigInteger) rewardsScore.call("getEmission", BigInteger.valueOf(-1));
 
-        verify(baln.mock, times(day)).transfer(bwt.getAddress(),
-            defaultPlatformDist.multiply(emission).divide(EXA), new byte[0]);
-        verify(baln.mock, times(day)).transfer(daoFund.getAddress(),
-            defaultPlatformDist.multiply(emission).divide(EXA), new byte[0]);
-        verify(baln.mock, times(day)).transfer(reserve.getAddress(),
-            defaultPlatformDist.multiply(emission).divide(EXA), new byte[0]);
+        BigInteger expectedPlatformDist = defaultPlatformDist.multiply(emission).divide(EXA)
+                .multiply(BigInteger.valueOf(day));
+        assertEquals(expectedPlatformDist, getTotalTransferred(bwt.getAddress()));
+        assertEquals(expectedPlatformDist, getTotalTransferred(daoFund.getAddress()));
+        assertEquals(expectedPlatformDist, getTotalTransferred(reserve.getAddress()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void distribute_multipleDays() {
+        // Arrange
+        syncDistributions();
+        BigInteger startDay = (BigInteger) rewardsScore.call("getDay");
+        BigInteger emission = (BigInteger) rewardsScore.call("getEmission", BigInteger.valueOf(-1));
+        int missedDays = 5;
+        clearInvocations(baln.mock);
+
+        // Act
+        sm.getBlock().increase(DAY * missedDays);
+        rewardsScore.invoke(owner, "distribute");
+
+        // Assert
+        BigInteger expectedPlatformDist = defaultPlatformDist.multiply(emission).divide(EXA)
+                .multiply(BigInteger.valueOf(missedDays));
+        verify(baln.mock).mint(emission.multiply(BigInteger.valueOf(missedDays)), new byte[0]);
+        verify(baln.mock).transfer(bwt.getAddress(), expectedPlatformDist, new byte[0]);
+        verify(baln.mock).transfer(daoFund.getAddress(), expectedPlatformDist, new byte[0]);
+        verify(baln.mock).transfer(reserve.getAddress(), expectedPlatformDist, new byte[0]);
+
+        for (int i = 1; i <= missedDays; i++) {
+            BigInteger day = startDay.add(BigInteger.valueOf(i));
+            Map<String, Map<String, Object>> sources =
+                    (Map<String, Map<String, Object>>) rewardsScore.call("getDataSourcesAt", day);
+            assertTrue(((BigInteger) sources.get("sICX/ICX").get("total_dist")).signum() > 0);
+        }
+    }
+
+    private BigInteger getTotalTransferred(Address recipient) {
+        ArgumentCaptor<BigInteger> amounts = ArgumentCaptor.forClass(BigInteger.class);
+        verify(baln.mock, atLeastOnce()).transfer(eq(recipient), amounts.capture(), any(byte[].class));
+        return amounts.getAllValues().stream().reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    @SuppressWarnings("unchecked")
+    private BigInteger getWorkingBalance(Account account) {
+        Map<String, BigInteger> data = (Map<String, BigInteger>) rewardsScore.call("getWorkingBalanceAndSupply",
+                "Loans", account.getAddress().toString());
+        return data.get("workingBalance");
     }
 
     @Test
@@ -332,6 +379,44 @@ class RewardsTestRewards extends RewardsTestBase {
         assertEquals(boostedRewards.divide(EXA), userLoansDistribution.divide(EXA));
     }
 
+    @Test
+    void boostedRewards_onBalanceUpdateBatchMatchesSingleUpdates() {
+        // Arrange
+        Account batchUpdated = sm.createAccount();
+        Account batchKicked = sm.createAccount();
+        Account singleUpdated = sm.createAccount();
+        Account singleKicked = sm.createAccount();
+        BigInteger loansBalance = BigInteger.valueOf(1000).multiply(EXA);
+        BigInteger loansTotalSupply = BigInteger.valueOf(1_000_000).multiply(EXA);
+        BigInteger bBalnSupply = BigInteger.valueOf(500_000).multiply(EXA);
+
+        when(bBaln.mock.balanceOf(any(Address.class), any(BigInteger.class))).thenReturn(
+                BigInteger.valueOf(800).multiply(EXA));
+        when(bBaln.mock.totalSupply(BigInteger.ZERO)).thenReturn(bBalnSupply);
+        for (Account account : List.of(batchUpdated, batchKicked, singleUpdated, singleKicked)) {
+            mockBalanceAndSupply(loans, "Loans", account.getAddress(), loansBalance, loansTotalSupply);
+            rewardsScore.invoke(loans.account, "updateRewardsData", "Loans", loansTotalSupply,
+                    account.getAddress(), BigInteger.ZERO);
+            rewardsScore.invoke(account, "boost", getUserSources(account.getAddress()));
+        }
+
+        // Act
+        BigInteger bBalnBalance = BigInteger.valueOf(100).multiply(EXA);
+        rewardsScore.invoke(bBaln.account, "onBalanceUpdateBatch",
+                new Address[]{batchUpdated.getAddress(), batchKicked.getAddress()},
+                new BigInteger[]{bBalnBalance, BigInteger.ZERO});
+        rewardsScore.invoke(bBaln.account, "onBalanceUpdate", singleUpdated.getAddress(), bBalnBalance);
+        rewardsScore.invoke(bBaln.account, "onKick", singleKicked.getAddress());
+
+        // Assert
+        BigInteger boost =
+                loansTotalSupply.multiply(bBalnBalance).divide(bBalnSupply).multiply(EXA.subtract(WEIGHT)).divide(WEIGHT);
+        assertEquals(loansBalance.add(boost), getWorkingBalance(batchUpdated));
+        assertEquals(getWorkingBalance(singleUpdated), getWorkingBalance(batchUpdated));
+        assertEquals(loansBalance, getWorkingBalance(batchKicked));
+        assertEquals(getWorkingBalance(singleKicked), getWorkingBalance(batchKicked));
+    }
+
     @Test
     void boostedRewards_updateRewardsData() {
         // Arrange
@@ -491,6 +576,74 @@ class RewardsTestRewards extends RewardsTestBase {
         verifyBalnReward(account2.getAddress(), user2ExpectedRewards);
     }
 
+    @Test
+    void updateBalanceAndSupplyBatch_fetchesBoostedBalancesOnce() {
+        // Arrange
+        Account account1 = sm.createAccount();
+        Account account2 = sm.createAccount();
+
+        String name = "Loans";
+        BigInteger user1Balance = BigInteger.ONE.multiply(EXA);
+        BigInteger user2Balance = BigInteger.TWO.multiply(EXA);
+        BigInteger totalSupply = BigInteger.TEN.multiply(EXA);
+
+        RewardsDataEntry user1Entry = new RewardsDataEntry();
+        user1Entry._balance = user1Balance;
+        user1Entry._user = account1.getAddress().toString();
+        RewardsDataEntry user2Entry = new RewardsDataEntry();
+        user2Entry._balance = user2Balance;
+        user2Entry._user = account2.getAddress().toString();
+        Object batch = new RewardsDataEntry[]{user1Entry, user2Entry};
+
+        when(bBaln.mock.balanceOfBatch(any(Address[].class), any(BigInteger.class)))
+                .thenReturn(List.of(BigInteger.ZERO, BigInteger.ZERO));
+
+        // Act
+        rewardsScore.invoke(loans.account, "updateBalanceAndSupplyBatch", name, totalSupply, batch);
+
+        // Assert
+        verify(bBaln.mock).balanceOfBatch(new Address[]{account1.getAddress(), account2.getAddress()},
+                BigInteger.ZERO);
+        verify(bBaln.mock, never()).balanceOf(eq(account1.getAddress()), any(BigInteger.class));
+        verify(bBaln.mock, never()).balanceOf(eq(account2.getAddress()), any(BigInteger.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void updateBalanceAndSupplyBatch_fallsBackToSingleBoostedBalances() {
+        // Arrange
+        Account account1 = sm.createAccount();
+        Account account2 = sm.createAccount();
+
+        String name = "Loans";
+        BigInteger totalSupply = BigInteger.TEN.multiply(EXA);
+
+        RewardsDataEntry user1Entry = new RewardsDataEntry();
+        user1Entry._balance = EXA;
+        user1Entry._user = account1.getAddress().toString();
+        RewardsDataEntry user2Entry = new RewardsDataEntry();
+        user2Entry._balance = EXA;
+        user2Entry._user = account2.getAddress().toString();
+        Object batch = new RewardsDataEntry[]{user1Entry, user2Entry};
+
+        // A bBaln without balanceOfBatch gives back no balances
+        when(bBaln.mock.balanceOfBatch(any(Address[].class), any(BigInteger.class))).thenReturn(List.of());
+        when(bBaln.mock.balanceOf(eq(account1.getAddress()), any(BigInteger.class))).thenReturn(EXA);
+        when(bBaln.mock.totalSupply(any(BigInteger.class))).thenReturn(BigInteger.TEN.multiply(EXA));
+
+        // Act
+        rewardsScore.invoke(loans.account, "updateBalanceAndSupplyBatch", name, totalSupply, batch);
+
+        // Assert
+        verify(bBaln.mock).balanceOf(eq(account1.getAddress()), any(BigInteger.class));
+        verify(bBaln.mock).balanceOf(eq(account2.getAddress()), any(BigInteger.class));
+        Map<String, BigInteger> boosted = (Map<String, BigInteger>) rewardsScore.call("getWorkingBalanceAndSupply",
+                name, account1.getAddress().toString());
+        Map<String, BigInteger> unboosted = (Map<String, BigInteger>) rewardsScore.call("getWorkingBalanceAndSupply",
+                name, account2.getAddress().toString());
+        assertTrue(boosted.get("workingBalance").compareTo(unboosted.get("workingBalance")) > 0);
+    }
+
     @Test
     void getBalnHolding() {
         // Arrange
@@ -625,6 +778,49 @@ class RewardsTestRewards extends RewardsTestBase {
         assertEquals(user2ExpectedRewards.divide(BigInteger.TEN), user2Rewards);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void getRewardsBatch() {
+        // Arrange
+        Account account1 = sm.createAccount();
+        Account account2 = sm.createAccount();
+        Account account3 = sm.createAccount();
+        BigInteger balance1 = BigInteger.TWO.multiply(EXA);
+        BigInteger balance2 = BigInteger.valueOf(3).multiply(EXA);
+        BigInteger totalSupply = balance1.add(balance2);
+
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", balance1,
+                account1.getAddress().toString(), balance1);
+        rewardsScore.invoke(dex.account, "updateBalanceAndSupply", "sICX/ICX", totalSupply,
+                account2.getAddress().toString(), balance2);
+        rewardsScore.invoke(loans.account, "updateBalanceAndSupply", "Loans", balance1,
+                account1.getAddress().toString(), balance1);
+
+        // Act
+        sm.getBlock().increase(DAY);
+        String[] holders = new String[]{account1.getAddress().toString(), account2.getAddress().toString(),
+                account3.getAddress().toString()};
+        Map<String, Object> batch = (Map<String, Object>) rewardsScore.call("getRewardsBatch", (Object) holders);
+        List<String> tokens = (List<String>) batch.get("tokens");
+        List<List<BigInteger>> rewards = (List<List<BigInteger>>) batch.get("rewards");
+
+        // Assert
+        String baln = mockBalanced.baln.getAddress().toString();
+        assertEquals(baln, tokens.get(0));
+        assertEquals(holders.length, rewards.size());
+        for (int i = 0; i < holders.length; i++) {
+            Map<String, BigInteger> expected = (Map<String, BigInteger>) rewardsScore.call("getRewards", holders[i]);
+            assertEquals(expected.size(), tokens.size());
+            for (int j = 0; j < tokens.size(); j++) {
+                assertEquals(expected.get(tokens.get(j)), rewards.get(i).get(j));
+            }
+        }
+
+        assertTrue(rewards.get(0).get(0).compareTo(BigInteger.ZERO) > 0);
+        assertTrue(rewards.get(1).get(0).compareTo(BigInteger.ZERO) > 0);
+        assertEquals(BigInteger.ZERO, rewards.get(2).get(0));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void setPlatformDistPercentage() {
@@ -734,4 +930,35 @@ class RewardsTestRewards extends RewardsTestBase {
         rewardsScore.invoke(owner, "changeTypeWeight", type, EXA.multiply(BigInteger.TWO));
         assertEquals(EXA.multiply(BigInteger.TWO) ,rewardsScore.call("getCurrentTypeWeight", type));
     }
+
+    @Test
+    void checkpointWeeks() {
+        int type = (int)rewardsScore.call("getSourceType", "sICX/ICX");
+        rewardsScore.invoke(owner, "checkpoint");
+        Point sumBefore = (Point) rewardsScore.call("getWeightsSumPerType", type);
+        assertTrue(sumBefore.slope.compareTo(BigInteger.ZERO) > 0);
+
+        sm.getBlock().increase(DAY * 7 * 4);
+        rewardsScore.invoke(owner, "checkpointWeeks", 1);
+        assertEquals(EXA ,rewardsScore.call("getCurrentTypeWeight", type));
+
+        // Only one week of the gap is filled in
+        Point sumPartial = (Point) rewardsScore.call("getWeightsSumPerType", type);
+        assertEquals(sumBefore.bias.subtract(sumBefore.slope.multiply(WEEK)), sumPartial.bias);
+        assertEquals(sumPartial.bias.multiply(EXA), rewardsScore.call("getTotalWeight"));
+
+        // A second call finishes the gap, after which a full checkpoint has nothing left to do
+        rewardsScore.invoke(owner, "checkpointWeeks", 10);
+        Point sumCaughtUp = (Point) rewardsScore.call("getWeightsSumPerType", type);
+        BigInteger totalCaughtUp = (BigInteger) rewardsScore.call("getTotalWeight");
+        assertTrue(sumCaughtUp.bias.compareTo(sumPartial.bias) < 0);
+        assertEquals(sumCaughtUp.bias.multiply(EXA), totalCaughtUp);
+
+        rewardsScore.invoke(owner, "checkpoint");
+        assertEquals(sumCaughtUp.bias, ((Point) rewardsScore.call("getWeightsSumPerType", type)).bias);
+        assertEquals(totalCaughtUp, rewardsScore.call("getTotalWeight"));
+
+        Executable zeroWeeks = () -> rewardsScore.invoke(owner, "checkpointWeeks", 0);
+        expectErrorMessage(zeroWeeks, "maxWeeks has to be positive");
+    }
 }
\ No newline at end of file
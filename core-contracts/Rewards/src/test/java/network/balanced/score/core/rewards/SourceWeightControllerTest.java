@@ -154,6 +154,41 @@ public class SourceWeightControllerTest extends UnitTest {
         assertEquals(BigInteger.ZERO, bnUSDLpShare);
     }
 
+    @Test
+    void voteTest_missedCheckpoints() {
+        // Arrange
+        Account user = sm.createAccount();
+        mockUserWeight(user, EXA);
+        BigInteger expectedShare = EXA.divide(BigInteger.TWO);
+
+        // Act
+        vote(user, "sICX/ICX", VOTE_POINTS.divide(BigInteger.TWO));
+        vote(user, "sICX/bnUSD", VOTE_POINTS.divide(BigInteger.TWO));
+        sm.getBlock().increase(WEEK_BLOCKS * 10);
+
+        // Assert
+        BigInteger ICXLPShare = (BigInteger) weightController.call("getRelativeWeight", "sICX/ICX",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+        BigInteger bnUSDLpShare = (BigInteger) weightController.call("getRelativeWeight", "sICX/bnUSD",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+        assertEquals(expectedShare, ICXLPShare);
+        assertEquals(expectedShare, bnUSDLpShare);
+
+        // Act
+        weightController.invoke(owner, "updateRelativeWeight", "sICX/ICX",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+        weightController.invoke(owner, "updateRelativeWeight", "sICX/bnUSD",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+
+        // Assert
+        ICXLPShare = (BigInteger) weightController.call("getRelativeWeight", "sICX/ICX",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+        bnUSDLpShare = (BigInteger) weightController.call("getRelativeWeight", "sICX/bnUSD",
+                BigInteger.valueOf(sm.getBlock().getTimestamp()));
+        assertEquals(expectedShare, ICXLPShare);
+        assertEquals(expectedShare, bnUSDLpShare);
+    }
+
     @Test
     void voteTest_aboveMaxPower() {
         // Arrange
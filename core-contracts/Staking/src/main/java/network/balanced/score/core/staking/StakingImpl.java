@@ -22,6 +22,7 @@ import com.eclipsesource.json.JsonValue;
 import network.balanced.score.core.staking.db.DelegationListDBSdo;
 import network.balanced.score.core.staking.db.LinkedListDB;
 import network.balanced.score.core.staking.db.NodeDB;
+import network.balanced.score.core.staking.db.PrepDelegationsDB;
 import network.balanced.score.core.staking.utils.Constant;
 import network.balanced.score.core.staking.utils.UnstakeDetails;
 import network.balanced.score.lib.interfaces.Staking;
@@ -55,15 +56,38 @@ public class StakingImpl implements Staking {
     private final VarDB<BigInteger> totalLifetimeReward = Context.newVarDB(TOTAL_LIFETIME_REWARD, BigInteger.class);
     private final VarDB<BigInteger> totalUnstakeAmount = Context.newVarDB(TOTAL_UNSTAKE_AMOUNT, BigInteger.class);
     private final ArrayDB<Address> topPreps = Context.newArrayDB(TOP_PREPS, Address.class);
+    private final DictDB<Address, Boolean> topPrepsIndex = Context.newDictDB(TOP_PREPS_INDEX, Boolean.class);
+    // Last delegation submitted to the system contract, used to skip unchanged setDelegation calls
+    private final DictDB<Address, BigInteger> networkDelegation = Context.newDictDB(NETWORK_DELEGATION,
+            BigInteger.class);
+    private final VarDB<BigInteger> networkDelegationTotal = Context.newVarDB(NETWORK_DELEGATION_TOTAL,
+            BigInteger.class);
+    private final VarDB<BigInteger> networkDelegationBlock = Context.newVarDB(NETWORK_DELEGATION_BLOCK,
+            BigInteger.class);
+    private final VarDB<Boolean> networkDelegationPending = Context.newVarDB(NETWORK_DELEGATION_PENDING,
+            Boolean.class);
+    // Block heights at which I-Score and the contract balance were last checked
+    private final VarDB<BigInteger> iscoreCheckBlock = Context.newVarDB(ISCORE_CHECK_BLOCK, BigInteger.class);
+    private final VarDB<BigInteger> balanceCheckBlock = Context.newVarDB(BALANCE_CHECK_BLOCK, BigInteger.class);
     private final VarDB<BigInteger> icxToClaim = Context.newVarDB(ICX_TO_CLAIM, BigInteger.class);
     private final DictDB<Address, BigInteger> icxPayable = Context.newDictDB(ICX_PAYABLE, BigInteger.class);
     private final VarDB<BigInteger> unstakeBatchLimit = Context.newVarDB(UNSTAKE_BATCH_LIMIT, BigInteger.class);
     public static final VarDB<Boolean> stakingOn = Context.newVarDB(STAKING_ON, Boolean.class);
     private final LinkedListDB unstakeRequestList = new LinkedListDB(UNSTAKE_DICT);
+    // Unstake request id -> cumulative ICX queued up to and including the request
+    private final DictDB<BigInteger, BigInteger> unstakeTicket = Context.newDictDB(UNSTAKE_TICKET, BigInteger.class);
+    private final VarDB<BigInteger> unstakeQueued = Context.newVarDB(UNSTAKE_QUEUED, BigInteger.class);
+    private final VarDB<BigInteger> unstakeReleased = Context.newVarDB(UNSTAKE_RELEASED, BigInteger.class);
+    // Receiver -> ids of their pending unstake requests
+    private final BranchDB<Address, ArrayDB<BigInteger>> userUnstakeRequests =
+            Context.newBranchDB(USER_UNSTAKE_REQUESTS, BigInteger.class);
+    private final VarDB<Boolean> userUnstakeRequestsIndexed = Context.newVarDB(USER_UNSTAKE_REQUESTS_INDEXED,
+            Boolean.class);
     private final DictDB<Address, DelegationListDBSdo> userDelegationInPercentage =
             Context.newDictDB(USER_DELEGATION_PERCENTAGE, DelegationListDBSdo.class);
-    private final VarDB<DelegationListDBSdo> prepDelegationInIcx = Context.newVarDB(PREP_DELEGATION_ICX,
+    private final VarDB<DelegationListDBSdo> legacyPrepDelegationInIcx = Context.newVarDB(PREP_DELEGATION_ICX,
             DelegationListDBSdo.class);
+    private final PrepDelegationsDB prepDelegationInIcx = new PrepDelegationsDB(PREP_DELEGATED_ICX);
     private final VarDB<String> currentVersion = Context.newVarDB(VERSION, String.class);
 
     private final VarDB<Address> statusManager = Context.newVarDB(STATUS_MANAGER, Address.class);
@@ -81,6 +105,36 @@ public class StakingImpl implements Staking {
             stakingOn.set(true);
         }
 
+        if (topPreps.size() > 0 && topPrepsIndex.get(topPreps.get(0)) == null) {
+            int topPrepsCount = topPreps.size();
+            for (int i = 0; i < topPrepsCount; i++) {
+                topPrepsIndex.set(topPreps.get(i), true);
+            }
+        }
+
+        if (unstakeQueued.get() == null) {
+            BigInteger queued = BigInteger.ZERO;
+            for (UnstakeDetails unstakeDetails : unstakeRequestList.iterate()) {
+                queued = queued.add(unstakeDetails.unstakeAmount);
+                unstakeTicket.set(unstakeDetails.nodeId, queued);
+            }
+            unstakeQueued.set(queued);
+            unstakeReleased.set(BigInteger.ZERO);
+        }
+
+        if (!userUnstakeRequestsIndexed.getOrDefault(false)) {
+            for (UnstakeDetails unstakeDetails : unstakeRequestList.iterate()) {
+                userUnstakeRequests.at(unstakeDetails.receiverAddress).add(unstakeDetails.nodeId);
+            }
+            userUnstakeRequestsIndexed.set(true);
+        }
+
+        DelegationListDBSdo legacyPrepDelegations = legacyPrepDelegationInIcx.get();
+        if (legacyPrepDelegations != null) {
+            prepDelegationInIcx.apply(legacyPrepDelegations.toMap());
+            legacyPrepDelegationInIcx.set(null);
+        }
+
         if (currentVersion.getOrDefault("").equals(Versions.STAKING)) {
             Context.revert("Can't Update same version of code");
         }
@@ -189,10 +243,11 @@ public class StakingImpl implements Staking {
     @External(readonly = true)
     public List<Address> getPrepList() {
         List<Address> topPreps = getTopPreps();
-        Map<String, BigInteger> prepDelegations = prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-        for (String prep : prepDelegations.keySet()) {
-            if (!topPreps.contains(Address.fromString(prep))) {
-                topPreps.add(Address.fromString(prep));
+        int delegatedPrepsCount = prepDelegationInIcx.size();
+        for (int i = 0; i < delegatedPrepsCount; i++) {
+            Address prepAddress = prepDelegationInIcx.getPrep(i);
+            if (!isTopPrep(prepAddress)) {
+                topPreps.add(prepAddress);
             }
         }
         return topPreps;
@@ -226,14 +281,8 @@ public class StakingImpl implements Staking {
 
     @External(readonly = true)
     public Map<String, BigInteger> getPrepDelegations() {
-        Map<String, BigInteger> prepDelegationInIcx =
-                this.prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-        BigInteger specifiedIcxSum = BigInteger.ZERO;
-        List<Address> addressInSpecification = new ArrayList<>();
-        for (Map.Entry<String, BigInteger> prepDelegation : prepDelegationInIcx.entrySet()) {
-            specifiedIcxSum = specifiedIcxSum.add(prepDelegation.getValue());
-            addressInSpecification.add(Address.fromString(prepDelegation.getKey()));
-        }
+        Map<String, BigInteger> prepDelegationInIcx = this.prepDelegationInIcx.toMap();
+        BigInteger specifiedIcxSum = this.prepDelegationInIcx.getTotal();
         BigInteger totalStake = getTotalStake();
         BigInteger unspecifiedICX = totalStake.subtract(specifiedIcxSum);
         List<Address> topPreps = getTopPreps();
@@ -249,10 +298,9 @@ public class StakingImpl implements Staking {
             allPrepDelegations.put(prep.toString(), finalAmount);
         }
 
-        for (Address prep : addressInSpecification) {
-            BigInteger amountInDelegation = allPrepDelegations.get(prep.toString());
-            if (amountInDelegation == null) {
-                allPrepDelegations.put(prep.toString(), prepDelegationInIcx.get(prep.toString()));
+        for (Map.Entry<String, BigInteger> prepDelegation : prepDelegationInIcx.entrySet()) {
+            if (!allPrepDelegations.containsKey(prepDelegation.getKey())) {
+                allPrepDelegations.put(prepDelegation.getKey(), prepDelegation.getValue());
             }
         }
         return allPrepDelegations;
@@ -260,7 +308,12 @@ public class StakingImpl implements Staking {
 
     @External(readonly = true)
     public Map<String, BigInteger> getActualPrepDelegations() {
-        return prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
+        return prepDelegationInIcx.toMap();
+    }
+
+    @External(readonly = true)
+    public boolean isNetworkDelegationPending() {
+        return networkDelegationPending.getOrDefault(false);
     }
 
     @External(readonly = true)
@@ -270,7 +323,16 @@ public class StakingImpl implements Staking {
 
     @External(readonly = true)
     public BigInteger claimableICX(Address _address) {
-        return icxPayable.getOrDefault(_address, BigInteger.ZERO);
+        BigInteger claimable = icxPayable.getOrDefault(_address, BigInteger.ZERO);
+        BigInteger released = unstakeReleased.getOrDefault(BigInteger.ZERO);
+        ArrayDB<BigInteger> requests = userUnstakeRequests.at(_address);
+        int requestsCount = requests.size();
+        for (int i = 0; i < requestsCount; i++) {
+            BigInteger nodeId = requests.get(i);
+            NodeDB node = unstakeRequestList.getNode(nodeId);
+            claimable = claimable.add(getReleasedAmount(nodeId, node.getValue(), released));
+        }
+        return claimable;
     }
 
     @External(readonly = true)
@@ -307,14 +369,21 @@ public class StakingImpl implements Staking {
     }
 
     @SuppressWarnings("unchecked")
-    private void checkForIscore() {
+    private boolean checkForIscore(BigInteger blockHeight) {
+        if (blockHeight.equals(iscoreCheckBlock.get())) {
+            return false;
+        }
+        iscoreCheckBlock.set(blockHeight);
+
         Map<String, Object> iscoreDetails = (Map<String, Object>) Context.call(SYSTEM_SCORE_ADDRESS, "queryIScore",
                 Context.getAddress());
         BigInteger iscoreGenerated = (BigInteger) iscoreDetails.get("estimatedICX");
         if (iscoreGenerated.compareTo(BigInteger.ZERO) > 0) {
             Context.call(SYSTEM_SCORE_ADDRESS, "claimIScore");
-            IscoreClaimed(BigInteger.valueOf(Context.getBlockHeight()), iscoreGenerated);
+            IscoreClaimed(blockHeight, iscoreGenerated);
+            return true;
         }
+        return false;
     }
 
     @External
@@ -323,7 +392,8 @@ public class StakingImpl implements Staking {
         if (_to == null) {
             _to = Context.getCaller();
         }
-        BigInteger payableIcx = claimableICX(_to);
+        settleReleasedUnstakes(_to);
+        BigInteger payableIcx = icxPayable.getOrDefault(_to, BigInteger.ZERO);
         BigInteger icxToClaim = totalClaimableIcx();
         Context.require(payableIcx.compareTo(icxToClaim) <= 0,
                 TAG + ": No sufficient icx to claim. Requested: " + payableIcx + " Available: " + icxToClaim);
@@ -353,10 +423,15 @@ public class StakingImpl implements Staking {
             Address prepAddress = (Address) preps.get("address");
             topPreps.add(prepAddress);
             this.topPreps.add(prepAddress);
+            topPrepsIndex.set(prepAddress, true);
         }
         return topPreps;
     }
 
+    private boolean isTopPrep(Address prep) {
+        return topPrepsIndex.getOrDefault(prep, false);
+    }
+
     @External(readonly = true)
     public Map<String, BigInteger> getAddressDelegations(Address _address) {
         Map<String, BigInteger> delegationIcx = new HashMap<>();
@@ -411,13 +486,12 @@ public class StakingImpl implements Staking {
     }
 
 
-    private void stakeAndDelegateInNetwork(BigInteger stakeAmount, Map<String, BigInteger> prepDelegations) {
+    private void stakeAndDelegateInNetwork(BigInteger stakeAmount, Map<String, BigInteger> prepDelegationChanges) {
         List<Address> topPreps = updateTopPreps();
-        DelegationListDBSdo prepDelegationsList = DelegationListDBSdo.fromMap(prepDelegations);
-        prepDelegationInIcx.set(prepDelegationsList);
+        prepDelegationInIcx.apply(prepDelegationChanges);
 
         Context.call(SYSTEM_SCORE_ADDRESS, "setStake", stakeAmount);
-        updateDelegationInNetwork(prepDelegations, topPreps, stakeAmount);
+        updateDelegationInNetwork(topPreps, stakeAmount);
     }
 
     @SuppressWarnings("unchecked")
@@ -429,8 +503,12 @@ public class StakingImpl implements Staking {
             blockHeightWeek.set(nextPrepTerm);
             int totalPreps = this.topPreps.size();
             for (int i = 0; i < totalPreps; i++) {
-                this.topPreps.removeLast();
+                Address prep = this.topPreps.pop();
+                topPrepsIndex.set(prep, null);
+                networkDelegation.set(prep, null);
             }
+            // Top P-Rep set changed, so the next delegation has to be submitted in full
+            networkDelegationTotal.set(null);
             return setTopPreps();
         } else {
             return getTopPreps();
@@ -452,18 +530,24 @@ public class StakingImpl implements Staking {
         BigInteger balance = (BigInteger) Context.call(sicxAddress.get(), "balanceOf", to);
         BigInteger icxHoldPreviously = balance.multiply(getTodayRate()).divide(ONE_EXA);
 
-        Map<String, BigInteger> prepDelegations = prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-
+        Map<String, BigInteger> prepDelegationChanges = new HashMap<>();
         if (balance.compareTo(BigInteger.ZERO) > 0) {
-            prepDelegations = subtractUserDelegationFromPrepDelegation(prepDelegations, previousDelegations,
-                    icxHoldPreviously);
-            prepDelegations = addUserDelegationToPrepDelegation(prepDelegations, newDelegations, icxHoldPreviously);
+            subtractUserDelegationFromPrepDelegation(prepDelegationChanges, previousDelegations, icxHoldPreviously);
+            addUserDelegationToPrepDelegation(prepDelegationChanges, newDelegations, icxHoldPreviously);
         }
-        stakeAndDelegateInNetwork(totalStake.getOrDefault(BigInteger.ZERO), prepDelegations);
+        stakeAndDelegateInNetwork(totalStake.getOrDefault(BigInteger.ZERO), prepDelegationChanges);
     }
 
     @SuppressWarnings("unchecked")
     private void performChecksForIscoreAndUnstakedBalance() {
+        // Unstakes only mature and I-Score is only claimed once per block, so once checked the balance can only
+        // change within the block by staking ICX that cancels ongoing unstaking
+        BigInteger blockHeight = BigInteger.valueOf(Context.getBlockHeight());
+        boolean cancelsUnstaking = Context.getValue().signum() > 0 &&
+                this.totalUnstakeAmount.getOrDefault(BigInteger.ZERO).signum() > 0;
+        if (blockHeight.equals(balanceCheckBlock.get()) && !cancelsUnstaking) {
+            return;
+        }
 
         // Calculate ICX available through unstaking
         Map<String, Object> stakeInNetwork = (Map<String, Object>) Context.call(SYSTEM_SCORE_ADDRESS, "getStake",
@@ -500,12 +584,11 @@ public class StakingImpl implements Staking {
             }
             rate.set(newRate);
             this.totalStake.set(newTotalStake);
+            // sICX serves the pushed rate as is, so a failed push must not leave it stale
+            Context.call(sicxAddress.get(), "updateRate", newRate);
 
-            Map<String, BigInteger> prepDelegations = prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-            BigInteger totalIcxSpecification = BigInteger.ZERO;
-            for (Map.Entry<String, BigInteger> prepDelegation : prepDelegations.entrySet()) {
-                totalIcxSpecification = totalIcxSpecification.add(prepDelegation.getValue());
-            }
+            Map<String, BigInteger> prepDelegations = prepDelegationInIcx.toMap();
+            BigInteger totalIcxSpecification = prepDelegationInIcx.getTotal();
 
             BigInteger additionalRewardForSpecification =
                     totalIcxSpecification.multiply(dailyReward).divide(totalStake);
@@ -518,36 +601,61 @@ public class StakingImpl implements Staking {
                 additionalRewardForSpecification = additionalRewardForSpecification.subtract(amountToAdd);
                 totalIcxSpecification = totalIcxSpecification.subtract(currentAmount);
             }
-            DelegationListDBSdo prepDelegationsList = DelegationListDBSdo.fromMap(finalPrepDelegation);
-            prepDelegationInIcx.set(prepDelegationsList);
+            prepDelegationInIcx.apply(finalPrepDelegation);
         }
-        checkForIscore();
+        boolean iscoreClaimed = checkForIscore(blockHeight);
         checkForUnstakedBalance(unstakedICX, totalUnstakeAmount);
+
+        // Claimed I-Score is only accounted for on the next check, which must not be skipped
+        if (!iscoreClaimed) {
+            balanceCheckBlock.set(blockHeight);
+        }
     }
 
-    private void updateDelegationInNetwork(Map<String, BigInteger> prepDelegations, List<Address> topPreps,
-                                           BigInteger totalStake) {
+    private void updateDelegationInNetwork(List<Address> topPreps, BigInteger totalStake) {
+        networkDelegationBlock.set(BigInteger.valueOf(Context.getBlockHeight()));
+        networkDelegationPending.set(null);
 
         List<Map<String, Object>> networkDelegationList = new ArrayList<>();
+        int topPrepsCount = topPreps.size();
+        BigInteger[] prepDelegations = new BigInteger[topPrepsCount];
         BigInteger icxPreferredToTopPreps = BigInteger.ZERO;
-        for (Map.Entry<String, BigInteger> prepDelegation : prepDelegations.entrySet()) {
-            Address prep = Address.fromString(prepDelegation.getKey());
-            if (topPreps.contains(prep)) {
-                icxPreferredToTopPreps = icxPreferredToTopPreps.add(prepDelegation.getValue());
-            }
+        for (int i = 0; i < topPrepsCount; i++) {
+            prepDelegations[i] = prepDelegationInIcx.get(topPreps.get(i));
+            icxPreferredToTopPreps = icxPreferredToTopPreps.add(prepDelegations[i]);
         }
 
         BigInteger equallyDistributableIcx = totalStake.subtract(icxPreferredToTopPreps);
         BigInteger totalTopPreps = BigInteger.valueOf(topPreps.size());
 
+        BigInteger submittedTotal = networkDelegationTotal.get();
+        boolean changed = submittedTotal == null || submittedTotal.compareTo(totalStake) > 0;
+        BigInteger[] values = new BigInteger[topPrepsCount];
+        BigInteger networkTotal = BigInteger.ZERO;
+        int index = 0;
         for (Address prep : topPreps) {
             BigInteger amountToAdd = equallyDistributableIcx.divide(totalTopPreps);
-            BigInteger currentAmount = prepDelegations.get(prep.toString());
-            BigInteger value = currentAmount != null ? currentAmount.add(amountToAdd) : amountToAdd;
+            BigInteger value = prepDelegations[index].add(amountToAdd);
             networkDelegationList.add(Map.of("address", prep, "value", value));
             equallyDistributableIcx = equallyDistributableIcx.subtract(amountToAdd);
             totalTopPreps = totalTopPreps.subtract(BigInteger.ONE);
+
+            if (!changed) {
+                BigInteger submitted = networkDelegation.getOrDefault(prep, BigInteger.ZERO);
+                changed = value.subtract(submitted).abs().compareTo(DELEGATION_DUST_THRESHOLD) > 0;
+            }
+            values[index++] = value;
+            networkTotal = networkTotal.add(value);
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            networkDelegation.set(topPreps.get(i), values[i]);
         }
+        networkDelegationTotal.set(networkTotal);
         Context.call(SYSTEM_SCORE_ADDRESS, "setDelegation", networkDelegationList);
     }
 
@@ -569,16 +677,13 @@ public class StakingImpl implements Staking {
 
         Map<String, BigInteger> userCurrentDelegation = userDelegationInPercentage.getOrDefault(_to,
                 DEFAULT_DELEGATION_LIST).toMap();
-        Map<String, BigInteger> prepDelegations = prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-        Map<String, BigInteger> finalDelegation;
+        Map<String, BigInteger> prepDelegationChanges = new HashMap<>();
         if (!userCurrentDelegation.isEmpty()) {
-            finalDelegation = addUserDelegationToPrepDelegation(prepDelegations, userCurrentDelegation, addedIcx);
-        } else {
-            finalDelegation = prepDelegations;
+            addUserDelegationToPrepDelegation(prepDelegationChanges, userCurrentDelegation, addedIcx);
         }
         BigInteger newTotalStake = this.totalStake.getOrDefault(BigInteger.ZERO).add(addedIcx);
         this.totalStake.set(newTotalStake);
-        stakeAndDelegateInNetwork(newTotalStake, finalDelegation);
+        stakeAndDelegateInNetwork(newTotalStake, prepDelegationChanges);
         Context.call(sicxAddress.get(), "mintTo", _to, sicxToMint, _data);
         TokenTransfer(_to, sicxToMint, sicxToMint + " sICX minted to " + _to);
         return sicxToMint;
@@ -601,115 +706,174 @@ public class StakingImpl implements Staking {
         }
 
         BigInteger icxValue = _value.multiply(getTodayRate()).divide(ONE_EXA);
-        Map<String, BigInteger> prepDelegationInIcx =
-                this.prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
+        Map<String, BigInteger> prepDelegationChanges = new HashMap<>();
 
         if (senderDelegationsInPercentage.isEmpty()) {
-            prepDelegationInIcx = addUserDelegationToPrepDelegation(prepDelegationInIcx,
-                    receiverDelegationsInPercentage, icxValue);
+            addUserDelegationToPrepDelegation(prepDelegationChanges, receiverDelegationsInPercentage, icxValue);
         } else if (receiverDelegationsInPercentage.isEmpty()) {
-            prepDelegationInIcx = subtractUserDelegationFromPrepDelegation(prepDelegationInIcx,
-                    senderDelegationsInPercentage, icxValue);
+            subtractUserDelegationFromPrepDelegation(prepDelegationChanges, senderDelegationsInPercentage, icxValue);
         } else {
-            prepDelegationInIcx = addUserDelegationToPrepDelegation(prepDelegationInIcx,
-                    receiverDelegationsInPercentage, icxValue);
-            prepDelegationInIcx = subtractUserDelegationFromPrepDelegation(prepDelegationInIcx,
-                    senderDelegationsInPercentage, icxValue);
+            addUserDelegationToPrepDelegation(prepDelegationChanges, receiverDelegationsInPercentage, icxValue);
+            subtractUserDelegationFromPrepDelegation(prepDelegationChanges, senderDelegationsInPercentage, icxValue);
+        }
+        prepDelegationInIcx.apply(prepDelegationChanges);
+
+        // Total stake is unchanged by a transfer, so the network delegation is recalculated at most once per block
+        BigInteger blockHeight = BigInteger.valueOf(Context.getBlockHeight());
+        if (networkDelegationBlock.getOrDefault(BigInteger.ZERO).compareTo(blockHeight) < 0) {
+            updateDelegationInNetwork(updateTopPreps(), totalStake.getOrDefault(BigInteger.ZERO));
+        } else {
+            networkDelegationPending.set(true);
         }
-        stakeAndDelegateInNetwork(totalStake.getOrDefault(BigInteger.ZERO), prepDelegationInIcx);
     }
 
-    private Map<String, BigInteger> addUserDelegationToPrepDelegation(Map<String, BigInteger> prepDelegation,
-                                                                      Map<String, BigInteger> userDelegationInPercentage, BigInteger amount) {
-        Map<String, BigInteger> sumDelegation = new HashMap<>();
-        sumDelegation.putAll(prepDelegation);
+    @External
+    public void updateNetworkDelegation() {
+        checkStatus(statusManager);
+        stakingOn();
+        if (!isNetworkDelegationPending()) {
+            return;
+        }
+
+        updateDelegationInNetwork(updateTopPreps(), totalStake.getOrDefault(BigInteger.ZERO));
+    }
+
+    private BigInteger getPrepDelegation(Map<String, BigInteger> prepDelegationChanges, String prep) {
+        BigInteger changedAmount = prepDelegationChanges.get(prep);
+        return changedAmount != null ? changedAmount : prepDelegationInIcx.get(prep);
+    }
+
+    private void addUserDelegationToPrepDelegation(Map<String, BigInteger> prepDelegationChanges,
+                                                   Map<String, BigInteger> userDelegationInPercentage,
+                                                   BigInteger amount) {
         BigInteger totalPercentage = HUNDRED_PERCENTAGE;
         for (Map.Entry<String, BigInteger> delegationInPercentage : userDelegationInPercentage.entrySet()) {
             BigInteger amountToAdd = delegationInPercentage.getValue().multiply(amount).divide(totalPercentage);
             String prepAddress = delegationInPercentage.getKey();
-            BigInteger currentAmount = sumDelegation.get(prepAddress);
-            currentAmount = currentAmount == null ? BigInteger.ZERO : currentAmount;
-            sumDelegation.put(prepAddress, currentAmount.add(amountToAdd));
+            BigInteger currentAmount = getPrepDelegation(prepDelegationChanges, prepAddress);
+            prepDelegationChanges.put(prepAddress, currentAmount.add(amountToAdd));
             totalPercentage = totalPercentage.subtract(delegationInPercentage.getValue());
             amount = amount.subtract(amountToAdd);
         }
-        return sumDelegation;
     }
 
-    private Map<String, BigInteger> subtractUserDelegationFromPrepDelegation(Map<String, BigInteger> prepDelegation,
-                                                                             Map<String, BigInteger> userDelegationInPercentage, BigInteger amount) {
-        Map<String, BigInteger> resultDelegation = new HashMap<>();
-        resultDelegation.putAll(prepDelegation);
+    private void subtractUserDelegationFromPrepDelegation(Map<String, BigInteger> prepDelegationChanges,
+                                                          Map<String, BigInteger> userDelegationInPercentage,
+                                                          BigInteger amount) {
         BigInteger totalPercentage = HUNDRED_PERCENTAGE;
         for (Map.Entry<String, BigInteger> delegationInPercentage : userDelegationInPercentage.entrySet()) {
             BigInteger amountToReduce = delegationInPercentage.getValue().multiply(amount).divide(totalPercentage);
             String prepAddress = delegationInPercentage.getKey();
-            BigInteger currentAmount = resultDelegation.get(prepAddress);
-            if (currentAmount != null) {
-                currentAmount = currentAmount.subtract(amountToReduce);
-                if (currentAmount.compareTo(BigInteger.ZERO) > 0) {
-                    resultDelegation.put(prepAddress, currentAmount);
-                } else {
-                    resultDelegation.remove(prepAddress);
-                }
+            BigInteger currentAmount = getPrepDelegation(prepDelegationChanges, prepAddress);
+            if (currentAmount.signum() > 0) {
+                prepDelegationChanges.put(prepAddress, currentAmount.subtract(amountToReduce).max(BigInteger.ZERO));
                 totalPercentage = totalPercentage.subtract(delegationInPercentage.getValue());
                 amount = amount.subtract(amountToReduce);
             }
         }
-        return resultDelegation;
     }
 
     private void checkForUnstakedBalance(BigInteger unstakedICX, BigInteger totalUnstakeAmount) {
 
-        if (unstakedICX.compareTo(BigInteger.ZERO) <= 0) {
-            return;
+        // Release ICX to the queue as a whole, requests are settled against the released total when claimed
+        BigInteger released = unstakeReleased.getOrDefault(BigInteger.ZERO);
+        if (unstakedICX.compareTo(BigInteger.ZERO) > 0) {
+            BigInteger payout = unstakedICX.min(unstakeQueued.getOrDefault(BigInteger.ZERO).subtract(released));
+            if (payout.signum() > 0) {
+                released = released.add(payout);
+                unstakeReleased.set(released);
+                this.totalUnstakeAmount.set(totalUnstakeAmount.subtract(payout));
+                this.icxToClaim.set(this.icxToClaim.getOrDefault(BigInteger.ZERO).add(payout));
+            }
         }
 
-        BigInteger icxToClaim = this.icxToClaim.getOrDefault(BigInteger.ZERO);
-
-        BigInteger currentId = unstakeRequestList.headId.getOrDefault(DEFAULT_NODE_ID);
-        if (currentId.equals(DEFAULT_NODE_ID)) {
-            return;
-        }
+        trimReleasedUnstakes(released);
+    }
 
-        NodeDB node;
-        UnstakeDetails unstakeData;
-        BigInteger payout;
+    // Moves fully released requests off the head of the queue into icxPayable, at most unstakeBatchLimit per call
+    private void trimReleasedUnstakes(BigInteger released) {
         int maxLoop = unstakeBatchLimit.getOrDefault(DEFAULT_UNSTAKE_BATCH_LIMIT).intValue();
         for (int i = 0; i < maxLoop; i++) {
+            BigInteger nodeId = unstakeRequestList.headId.getOrDefault(DEFAULT_NODE_ID);
+            if (nodeId.equals(DEFAULT_NODE_ID)
+                    || unstakeTicket.getOrDefault(nodeId, BigInteger.ZERO).compareTo(released) > 0) {
+                return;
+            }
 
-            node = unstakeRequestList.getNode(currentId);
-            unstakeData = new UnstakeDetails(currentId, node.getValue(), node.getKey(), node.getBlockHeight(),
-                    node.getSenderAddress());
+            NodeDB node = unstakeRequestList.getNode(nodeId);
+            Address receiver = node.getSenderAddress();
+            icxPayable.set(receiver, icxPayable.getOrDefault(receiver, BigInteger.ZERO).add(node.getValue()));
+            unstakeRequestList.removeHead();
+            unstakeTicket.set(nodeId, null);
+            removeUserUnstakeRequest(receiver, nodeId);
+        }
+    }
 
-            BigInteger unstakeAmount = unstakeData.unstakeAmount;
-            if (unstakeAmount.compareTo(unstakedICX) <= 0) {
-                payout = unstakeAmount;
-                unstakeRequestList.remove(currentId);
-            } else {
-                payout = unstakedICX;
-                unstakeRequestList.updateNode(unstakeData.key, unstakeAmount.subtract(payout),
-                        unstakeData.unstakeBlockHeight, unstakeData.receiverAddress, currentId);
+    private void removeUserUnstakeRequest(Address user, BigInteger nodeId) {
+        ArrayDB<BigInteger> requests = userUnstakeRequests.at(user);
+        int requestsCount = requests.size();
+        for (int i = 0; i < requestsCount; i++) {
+            if (requests.get(i).equals(nodeId)) {
+                BigInteger lastId = requests.pop();
+                if (i < requestsCount - 1) {
+                    requests.set(i, lastId);
+                }
+                return;
             }
-            totalUnstakeAmount = totalUnstakeAmount.subtract(payout);
-            unstakedICX = unstakedICX.subtract(payout);
-            icxToClaim = icxToClaim.add(payout);
-            icxPayable.set(unstakeData.receiverAddress, icxPayable.getOrDefault(unstakeData.receiverAddress,
-                    BigInteger.ZERO).add(payout));
+        }
+    }
 
-            currentId = unstakeRequestList.headId.getOrDefault(DEFAULT_NODE_ID);
+    private BigInteger getReleasedAmount(BigInteger nodeId, BigInteger remainingAmount, BigInteger released) {
+        BigInteger queuedBefore = unstakeTicket.getOrDefault(nodeId, BigInteger.ZERO).subtract(remainingAmount);
+        return released.subtract(queuedBefore).max(BigInteger.ZERO).min(remainingAmount);
+    }
 
-            if (currentId.equals(DEFAULT_NODE_ID)) {
-                break;
+    private void settleReleasedUnstakes(Address user) {
+        BigInteger released = unstakeReleased.getOrDefault(BigInteger.ZERO);
+        ArrayDB<BigInteger> requests = userUnstakeRequests.at(user);
+        BigInteger totalPayout = BigInteger.ZERO;
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            BigInteger nodeId = requests.get(i);
+            NodeDB node = unstakeRequestList.getNode(nodeId);
+            BigInteger unstakeAmount = node.getValue();
+            BigInteger payout = getReleasedAmount(nodeId, unstakeAmount, released);
+            if (payout.signum() == 0) {
+                continue;
             }
 
-            if (unstakedICX.compareTo(BigInteger.ZERO) <= 0) {
-                break;
+            if (payout.equals(unstakeAmount)) {
+                unstakeRequestList.remove(nodeId);
+                unstakeTicket.set(nodeId, null);
+                BigInteger lastId = requests.pop();
+                if (i < requests.size()) {
+                    requests.set(i, lastId);
+                }
+            } else {
+                unstakeRequestList.updateNode(node.getKey(), unstakeAmount.subtract(payout), node.getBlockHeight(),
+                        node.getSenderAddress(), nodeId);
             }
+            totalPayout = totalPayout.add(payout);
         }
 
-        this.totalUnstakeAmount.set(totalUnstakeAmount);
-        this.icxToClaim.set(icxToClaim);
+        if (totalPayout.signum() > 0) {
+            icxPayable.set(user, icxPayable.getOrDefault(user, BigInteger.ZERO).add(totalPayout));
+        }
+    }
+
+    private List<BigInteger> getUserUnstakeRequestIds(Address user) {
+        ArrayDB<BigInteger> requests = userUnstakeRequests.at(user);
+        List<BigInteger> requestIds = new ArrayList<>();
+        int requestsCount = requests.size();
+        for (int i = 0; i < requestsCount; i++) {
+            // Keep queue order, the index is reordered on removal
+            BigInteger nodeId = requests.get(i);
+            int position = requestIds.size();
+            while (position > 0 && requestIds.get(position - 1).compareTo(nodeId) > 0) {
+                position--;
+            }
+            requestIds.add(position, nodeId);
+        }
+        return requestIds;
     }
 
     @SuppressWarnings("unchecked")
@@ -720,13 +884,10 @@ public class StakingImpl implements Staking {
 
         Map<String, BigInteger> userDelegationPercentage = userDelegationInPercentage.getOrDefault(to,
                 DEFAULT_DELEGATION_LIST).toMap();
-        Map<String, BigInteger> prepDelegations = prepDelegationInIcx.getOrDefault(DEFAULT_DELEGATION_LIST).toMap();
-        Map<String, BigInteger> finalDelegation;
+        Map<String, BigInteger> prepDelegationChanges = new HashMap<>();
         if (!userDelegationPercentage.isEmpty()) {
-            finalDelegation = subtractUserDelegationFromPrepDelegation(prepDelegations, userDelegationPercentage,
+            subtractUserDelegationFromPrepDelegation(prepDelegationChanges, userDelegationPercentage,
                     amountToUnstake);
-        } else {
-            finalDelegation = prepDelegations;
         }
 
         // Unstake in network. Reverse order of stake.
@@ -734,11 +895,10 @@ public class StakingImpl implements Staking {
         Context.require(newTotalStake.signum() >= 0, TAG + ": Total staked amount can't be set negative");
         List<Address> topPreps = updateTopPreps();
         totalStake.set(newTotalStake);
-        DelegationListDBSdo prepDelegationsList = DelegationListDBSdo.fromMap(finalDelegation);
-        prepDelegationInIcx.set(prepDelegationsList);
+        prepDelegationInIcx.apply(prepDelegationChanges);
 
         // First set the decreased delegation and stake
-        updateDelegationInNetwork(finalDelegation, topPreps, newTotalStake);
+        updateDelegationInNetwork(topPreps, newTotalStake);
         Context.call(SYSTEM_SCORE_ADDRESS, "setStake", newTotalStake);
 
         // Add unstake details to unstake request list
@@ -748,8 +908,12 @@ public class StakingImpl implements Staking {
         BigInteger unlockPeriod = estimatedUnlockPeriod.get("unstakeLockPeriod");
         long currentBlockHeight = Context.getBlockHeight();
         BigInteger unstakeHeight = BigInteger.valueOf(currentBlockHeight).add(unlockPeriod);
-        unstakeRequestList.append(to, amountToUnstake, unstakeHeight, addressToSend,
-                unstakeRequestList.tailId.getOrDefault(BigInteger.ZERO).add(BigInteger.ONE));
+        BigInteger nodeId = unstakeRequestList.tailId.getOrDefault(BigInteger.ZERO).add(BigInteger.ONE);
+        unstakeRequestList.append(to, amountToUnstake, unstakeHeight, addressToSend, nodeId);
+        BigInteger queued = unstakeQueued.getOrDefault(BigInteger.ZERO).add(amountToUnstake);
+        unstakeTicket.set(nodeId, queued);
+        unstakeQueued.set(queued);
+        userUnstakeRequests.at(addressToSend).add(nodeId);
         UnstakeRequest(addressToSend, amountToUnstake);
     }
 
@@ -758,21 +922,29 @@ public class StakingImpl implements Staking {
     public List<List<Object>> getUnstakeInfo() {
         List<List<Object>> unstakeResponse = new ArrayList<>();
         List<UnstakeDetails> unstakeDetails = unstakeRequestList.iterate();
+        BigInteger released = unstakeReleased.getOrDefault(BigInteger.ZERO);
         for (UnstakeDetails unstakeDetail : unstakeDetails) {
-            unstakeResponse.add(List.of(unstakeDetail.nodeId, unstakeDetail.unstakeAmount, unstakeDetail.key,
-                    unstakeDetail.unstakeBlockHeight, unstakeDetail.receiverAddress));
+            BigInteger pendingAmount = unstakeDetail.unstakeAmount.subtract(getReleasedAmount(unstakeDetail.nodeId,
+                    unstakeDetail.unstakeAmount, released));
+            if (pendingAmount.signum() > 0) {
+                unstakeResponse.add(List.of(unstakeDetail.nodeId, pendingAmount, unstakeDetail.key,
+                        unstakeDetail.unstakeBlockHeight, unstakeDetail.receiverAddress));
+            }
         }
         return unstakeResponse;
     }
 
     @External(readonly = true)
     public List<Map<String, Object>> getUserUnstakeInfo(Address _address) {
-        List<UnstakeDetails> linkedListIter = unstakeRequestList.iterate();
         List<Map<String, Object>> response = new ArrayList<>();
-        for (UnstakeDetails unstakeData : linkedListIter) {
-            if (unstakeData.receiverAddress.equals(_address)) {
-                response.add(Map.of("amount", unstakeData.unstakeAmount, "from", unstakeData.key, "blockHeight",
-                        unstakeData.unstakeBlockHeight, "sender", unstakeData.receiverAddress));
+        BigInteger released = unstakeReleased.getOrDefault(BigInteger.ZERO);
+        for (BigInteger nodeId : getUserUnstakeRequestIds(_address)) {
+            NodeDB node = unstakeRequestList.getNode(nodeId);
+            BigInteger unstakeAmount = node.getValue();
+            BigInteger pendingAmount = unstakeAmount.subtract(getReleasedAmount(nodeId, unstakeAmount, released));
+            if (pendingAmount.signum() > 0) {
+                response.add(Map.of("amount", pendingAmount, "from", node.getKey(), "blockHeight",
+                        node.getBlockHeight(), "sender", node.getSenderAddress()));
             }
         }
         return response;
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.core.staking.db;
+
+import network.balanced.score.lib.utils.EnumerableSetDB;
+import score.Address;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * ICX delegated to each P-Rep through user preferences, stored per P-Rep so that a delegation change only touches
+ * the P-Reps it affects. Changes are collected in a map of P-Rep address to new amount and written with
+ * {@link #apply(Map)}; an amount of zero removes the P-Rep.
+ */
+public class PrepDelegationsDB {
+    private static final String NAME = "_PREP_DELEGATIONSDB";
+
+    private final DictDB<Address, BigInteger> delegations;
+    private final EnumerableSetDB<Address> preps;
+    private final VarDB<BigInteger> total;
+
+    public PrepDelegationsDB(String key) {
+        String name = key + NAME;
+        this.delegations = Context.newDictDB(name + "_delegations", BigInteger.class);
+        this.preps = new EnumerableSetDB<>(name + "_preps", Address.class);
+        this.total = Context.newVarDB(name + "_total", BigInteger.class);
+    }
+
+    public BigInteger get(Address prep) {
+        return delegations.getOrDefault(prep, BigInteger.ZERO);
+    }
+
+    public BigInteger get(String prep) {
+        return get(Address.fromString(prep));
+    }
+
+    public BigInteger getTotal() {
+        return total.getOrDefault(BigInteger.ZERO);
+    }
+
+    public int size() {
+        return preps.length();
+    }
+
+    public Address getPrep(int index) {
+        return preps.at(index);
+    }
+
+    public Map<String, BigInteger> toMap() {
+        int size = preps.length();
+        if (size == 0) {
+            return Map.of();
+        }
+
+        Map<String, BigInteger> delegationMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Address prep = preps.at(i);
+            delegationMap.put(prep.toString(), delegations.get(prep));
+        }
+        return delegationMap;
+    }
+
+    public void apply(Map<String, BigInteger> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        BigInteger total = getTotal();
+        for (Map.Entry<String, BigInteger> change : changes.entrySet()) {
+            Address prep = Address.fromString(change.getKey());
+            BigInteger value = change.getValue();
+            total = total.add(value).subtract(get(prep));
+            if (value.signum() > 0) {
+                preps.add(prep);
+                delegations.set(prep, value);
+            } else {
+                preps.remove(prep);
+                delegations.set(prep, null);
+            }
+        }
+        this.total.set(total);
+    }
+}
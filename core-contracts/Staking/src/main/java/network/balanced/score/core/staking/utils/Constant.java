@@ -34,6 +34,7 @@ public class Constant {
     public static final BigInteger DEFAULT_DECIMAL_VALUE = BigInteger.valueOf(18L);
     public static final BigInteger MINIMUM_DELEGATION_PERCENTAGE = pow10(15);
     public static final BigInteger BLOCKS_IN_A_WEEK = BigInteger.valueOf(7 * 43200L);
+    public static final BigInteger DELEGATION_DUST_THRESHOLD = ONE_EXA;
 
     public static final String SICX_SUPPLY = "sICX_supply";
     public static final String RATE = "_rate";
@@ -46,6 +47,13 @@ public class Constant {
     public static final String DISTRIBUTING = "_distributing";
     public static final String LINKED_LIST_VAR = "_linked_list_var";
     public static final String TOP_PREPS = "_top_preps";
+    public static final String TOP_PREPS_INDEX = "_top_preps_index";
+    public static final String NETWORK_DELEGATION = "network_delegation";
+    public static final String NETWORK_DELEGATION_TOTAL = "network_delegation_total";
+    public static final String NETWORK_DELEGATION_BLOCK = "network_delegation_block";
+    public static final String NETWORK_DELEGATION_PENDING = "network_delegation_pending";
+    public static final String ISCORE_CHECK_BLOCK = "iscore_check_block";
+    public static final String BALANCE_CHECK_BLOCK = "balance_check_block";
     public static final String PREP_LIST = "_prep_list";
     public static final String ADDRESS_DELEGATIONS = "_address_delegations";
     public static final String PREP_DELEGATIONS = "_prep_delegations";
@@ -55,8 +63,14 @@ public class Constant {
     public static final String ICX_PAYABLE = "icx_payable";
     public static final String ICX_TO_CLAIM = "icx_to_claim";
     public static final String UNSTAKE_DICT = "unstake_dict";
+    public static final String UNSTAKE_TICKET = "unstake_ticket";
+    public static final String UNSTAKE_QUEUED = "unstake_queued";
+    public static final String UNSTAKE_RELEASED = "unstake_released";
+    public static final String USER_UNSTAKE_REQUESTS = "user_unstake_requests";
+    public static final String USER_UNSTAKE_REQUESTS_INDEXED = "user_unstake_requests_indexed";
     public static final String USER_DELEGATION_PERCENTAGE = "user_delegation_percentage";
     public static final String PREP_DELEGATION_ICX = "prep_delegation_icx";
+    public static final String PREP_DELEGATED_ICX = "prep_delegated_icx";
     public static final String STATUS_MANAGER = "status_manager";
     public static final String VERSION = "version";
 
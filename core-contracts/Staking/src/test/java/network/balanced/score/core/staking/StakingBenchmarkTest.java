@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.core.staking;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import network.balanced.score.lib.structs.PrepDelegations;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import org.mockito.stubbing.Answer;
+import score.Address;
+import score.BranchDB;
+import score.Context;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static network.balanced.score.core.staking.utils.Constant.HUNDRED_PERCENTAGE;
+import static network.balanced.score.core.staking.utils.Constant.SYSTEM_SCORE_ADDRESS;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Reports storage reads, storage writes and external calls made by the Staking hot paths on a network with 120
+ * P-Reps (100 of them top P-Reps), a few thousand delegators and a long unstake queue. Run with
+ * {@code ./gradlew :Staking:benchmark}; the numbers are meant to be compared against a previous run.
+ */
+@Tag("benchmark")
+class StakingBenchmarkTest extends TestBase {
+    private static final int PREP_COUNT = 120;
+    private static final int TOP_PREP_COUNT = 100;
+    private static final int DELEGATOR_COUNT = 2000;
+    private static final int DELEGATIONS_PER_USER = 5;
+    private static final int UNSTAKE_QUEUE_LENGTH = 500;
+
+    private static final Set<String> READ_METHODS = Set.of("get", "getOrDefault", "size", "at");
+    private static final Set<String> WRITE_METHODS = Set.of("set", "add", "pop", "removeLast");
+
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final Account sicx = Account.newScoreAccount(1001);
+
+    private final MockedStatic<Context> contextMock = Mockito.mockStatic(Context.class, Mockito.CALLS_REAL_METHODS);
+
+    private final List<Object> trackedDbs = new ArrayList<>();
+    private final Map<String, Integer> calls = new HashMap<>();
+    private final Map<String, String> report = new LinkedHashMap<>();
+    private boolean tracking;
+    private int contractDbCount;
+
+    private final List<Address> preps = new ArrayList<>();
+    private final List<Account> delegators = new ArrayList<>();
+    private final Map<String, Object> stake = new HashMap<>();
+    private Score staking;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        setupStorageTracking();
+        setupSystemScore();
+        setupSicxScore();
+
+        tracking = true;
+        staking = sm.deploy(owner, StakingImpl.class);
+        contractDbCount = trackedDbs.size();
+        tracking = false;
+
+        staking.invoke(owner, "setSicxAddress", sicx.getAddress());
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(500L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+
+        for (int i = 0; i < DELEGATOR_COUNT; i++) {
+            Account delegator = sm.createAccount();
+            staking.invoke(delegator, "delegate", (Object) getDelegations(i));
+            delegators.add(delegator);
+            if (i % 100 == 0) {
+                clearInvocations(trackedDbs.toArray());
+            }
+        }
+
+        for (int i = 0; i < UNSTAKE_QUEUE_LENGTH; i++) {
+            Account delegator = delegators.get(i % DELEGATOR_COUNT);
+            staking.invoke(sicx, "tokenFallback", delegator.getAddress(), ICX.divide(BigInteger.TWO),
+                    getUnstakeData());
+            if (i % 100 == 0) {
+                clearInvocations(trackedDbs.toArray());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setupStorageTracking() {
+        contextMock.when(() -> Context.newVarDB(anyString(), any())).thenAnswer(invocation ->
+                track(invocation.callRealMethod()));
+        contextMock.when(() -> Context.newDictDB(anyString(), any())).thenAnswer(invocation ->
+                track(invocation.callRealMethod()));
+        contextMock.when(() -> Context.newArrayDB(anyString(), any())).thenAnswer(invocation ->
+                track(invocation.callRealMethod()));
+        contextMock.when(() -> Context.newBranchDB(anyString(), any())).thenAnswer(invocation -> {
+            Object branchDB = track(invocation.callRealMethod());
+            if (branchDB instanceof BranchDB) {
+                doAnswer(at -> track(at.callRealMethod())).when((BranchDB<Object, Object>) branchDB).at(any());
+            }
+            return branchDB;
+        });
+    }
+
+    private Object track(Object db) {
+        if (!tracking) {
+            return db;
+        }
+        Object trackedDb = spy(db);
+        trackedDbs.add(trackedDb);
+        return trackedDb;
+    }
+
+    private Answer<Object> countCall(String method, Object result) {
+        return invocation -> {
+            if (tracking) {
+                calls.merge(method, 1, Integer::sum);
+            }
+            return result;
+        };
+    }
+
+    private void setupSystemScore() {
+        contextMock.when(() -> Context.call(eq(SYSTEM_SCORE_ADDRESS), eq("setStake"), any(BigInteger.class)))
+                .thenAnswer(countCall("setStake", null));
+        contextMock.when(() -> Context.call(eq(SYSTEM_SCORE_ADDRESS), eq("setDelegation"), any(List.class)))
+                .thenAnswer(countCall("setDelegation", null));
+        contextMock.when(() -> Context.call(SYSTEM_SCORE_ADDRESS, "claimIScore"))
+                .thenAnswer(countCall("claimIScore", null));
+
+        stake.put("unstakes", List.of());
+        contextMock.when(() -> Context.call(eq(SYSTEM_SCORE_ADDRESS), eq("getStake"), any(Address.class)))
+                .thenAnswer(countCall("getStake", stake));
+        contextMock.when(() -> Context.call(eq(SYSTEM_SCORE_ADDRESS), eq("queryIScore"), any(Address.class)))
+                .thenAnswer(countCall("queryIScore", Map.of("estimatedICX", BigInteger.ZERO)));
+
+        List<Map<String, Object>> prepsList = new ArrayList<>();
+        for (int i = 0; i < PREP_COUNT; i++) {
+            Address prep = sm.createAccount().getAddress();
+            preps.add(prep);
+            if (i < TOP_PREP_COUNT) {
+                prepsList.add(Map.of("address", prep));
+            }
+        }
+        Map<String, Object> prepsResponse = Map.of("blockHeight", BigInteger.valueOf(123456L), "preps", prepsList);
+        contextMock.when(() -> Context.call(SYSTEM_SCORE_ADDRESS, "getPReps", BigInteger.ONE,
+                BigInteger.valueOf(100L))).thenAnswer(countCall("getPReps", prepsResponse));
+
+        contextMock.when(() -> Context.call(SYSTEM_SCORE_ADDRESS, "getIISSInfo"))
+                .thenAnswer(countCall("getIISSInfo", Map.of("nextPRepTerm", BigInteger.valueOf(1000))));
+        contextMock.when(() -> Context.call(SYSTEM_SCORE_ADDRESS, "estimateUnstakeLockPeriod"))
+                .thenAnswer(countCall("estimateUnstakeLockPeriod",
+                        Map.of("unstakeLockPeriod", BigInteger.valueOf(8 * 43200L))));
+    }
+
+    private void setupSicxScore() {
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("mintTo"), any(Address.class),
+                any(BigInteger.class), any(byte[].class))).thenAnswer(countCall("mintTo", null));
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("burn"), any(BigInteger.class)))
+                .thenAnswer(countCall("burn", null));
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("updateRate"), any(BigInteger.class)))
+                .thenAnswer(countCall("updateRate", null));
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("balanceOf"), any(Address.class)))
+                .thenAnswer(countCall("balanceOf", ICX.divide(BigInteger.TEN)));
+        contextMock.when(() -> Context.call(sicx.getAddress(), "totalSupply"))
+                .thenAnswer(countCall("totalSupply", ICX.multiply(BigInteger.valueOf(500L))));
+    }
+
+    private PrepDelegations[] getDelegations(int seed) {
+        PrepDelegations[] delegations = new PrepDelegations[DELEGATIONS_PER_USER];
+        BigInteger share = HUNDRED_PERCENTAGE.divide(BigInteger.valueOf(DELEGATIONS_PER_USER));
+        for (int i = 0; i < DELEGATIONS_PER_USER; i++) {
+            PrepDelegations delegation = new PrepDelegations();
+            delegation._address = preps.get((seed * DELEGATIONS_PER_USER + i) % PREP_COUNT);
+            delegation._votes_in_per = i == 0 ?
+                    HUNDRED_PERCENTAGE.subtract(share.multiply(BigInteger.valueOf(DELEGATIONS_PER_USER - 1))) :
+                    share;
+            delegations[i] = delegation;
+        }
+        return delegations;
+    }
+
+    private byte[] getUnstakeData() {
+        JSONObject data = new JSONObject();
+        data.put("method", "unstake");
+        return data.toString().getBytes();
+    }
+
+    private int countDbInvocations(Set<String> methods) {
+        int count = 0;
+        for (Object db : trackedDbs) {
+            for (Invocation invocation : mockingDetails(db).getInvocations()) {
+                if (methods.contains(invocation.getMethod().getName())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void measure(String operation, Runnable runnable) {
+        clearInvocations(trackedDbs.toArray());
+        calls.clear();
+
+        tracking = true;
+        runnable.run();
+        tracking = false;
+
+        int reads = countDbInvocations(READ_METHODS);
+        int writes = countDbInvocations(WRITE_METHODS);
+        report.put(operation, String.format("reads=%5d writes=%5d calls=%s", reads, writes, calls));
+        assertTrue(reads > 0, operation + " did not touch storage");
+
+        trackedDbs.subList(contractDbCount, trackedDbs.size()).clear();
+    }
+
+    @Test
+    void hotPathCosts(TestReporter reporter) {
+        Account delegator = delegators.get(0);
+        Account receiver = delegators.get(1);
+
+        measure("stakeICX (with preference)", () -> sm.call(delegator, ICX, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]));
+        measure("stakeICX (no preference)", () -> sm.call(owner, ICX, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]));
+        measure("delegate", () -> staking.invoke(delegator, "delegate", (Object) getDelegations(7)));
+
+        long blockHeight = sm.getBlock().getHeight() + 1;
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight);
+        measure("transfer (first in block)", () -> staking.invoke(sicx, "transferUpdateDelegations",
+                delegator.getAddress(), receiver.getAddress(), ICX.divide(BigInteger.TEN)));
+        measure("transfer (same block)", () -> staking.invoke(sicx, "transferUpdateDelegations",
+                receiver.getAddress(), delegator.getAddress(), ICX.divide(BigInteger.TEN)));
+        measure("updateNetworkDelegation", () -> staking.invoke(owner, "updateNetworkDelegation"));
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight + 1);
+
+        measure("unstake", () -> staking.invoke(sicx, "tokenFallback", delegator.getAddress(),
+                ICX.divide(BigInteger.TWO), getUnstakeData()));
+
+        // Release half of the queue by reporting it as no longer unstaking in the network
+        BigInteger unstaking = (BigInteger) staking.call("getUnstakingAmount");
+        BigInteger released = unstaking.divide(BigInteger.TWO);
+        stake.put("unstakes", List.of(Map.of("unstake", unstaking.subtract(released))));
+        contextMock.when(() -> Context.getBalance(staking.getAddress())).thenReturn(released);
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight + 2);
+        measure("stakeICX (releasing queue)", () -> sm.call(owner, ICX, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]));
+
+        contextMock.when(() -> Context.transfer(any(Address.class), any(BigInteger.class)))
+                .then(invocationOnMock -> null);
+        measure("claimUnstakedICX", () -> staking.invoke(delegator, "claimUnstakedICX", delegator.getAddress()));
+
+        report.forEach(reporter::publishEntry);
+    }
+
+    @AfterEach
+    void closeMock() {
+        contextMock.close();
+    }
+}
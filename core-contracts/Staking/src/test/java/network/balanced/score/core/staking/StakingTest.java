@@ -30,6 +30,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import score.Address;
 import score.Context;
+import score.UserRevertedException;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -123,6 +124,8 @@ class StakingTest extends TestBase {
         contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("mintTo"), any(Address.class),
                 any(BigInteger.class), any(byte[].class))).thenReturn(null);
         contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("burn"), any(BigInteger.class))).thenReturn(null);
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("updateRate"), any(BigInteger.class)))
+                .thenReturn(null);
 
         sicxBalance = BigInteger.ZERO;
         contextMock.when(sicxBalanceOf).thenReturn(sicxBalance);
@@ -195,6 +198,32 @@ class StakingTest extends TestBase {
         assertEquals(extraICXBalance, staking.call("getLifetimeReward"));
     }
 
+    @Test
+    void testNewIscoreRatePushFailure() {
+        BigInteger extraICXBalance = BigInteger.valueOf(397L);
+        BigInteger stakeAmount = BigInteger.valueOf(199L);
+        contextMock.when(() -> Context.getBalance(staking.getAddress())).thenReturn(extraICXBalance.add(stakeAmount));
+
+        sicxTotalSupply = BigInteger.valueOf(719L);
+        contextMock.when(getSicxTotalSupply).thenReturn(sicxTotalSupply);
+        doReturn(sicxTotalSupply).when(stakingSpy).getTotalStake();
+
+        sm.call(owner, stakeAmount, staking.getAddress(), "stakeICX", new Address(new byte[Address.LENGTH]),
+                new byte[0]);
+        BigInteger newRate = sicxTotalSupply.add(extraICXBalance).multiply(ICX).divide(sicxTotalSupply);
+        contextMock.verify(() -> Context.call(sicx.getAddress(), "updateRate", newRate));
+        assertEquals(newRate, staking.call("getTodayRate"));
+
+        // A failing push reverts the rate update instead of leaving sICX on the previous rate
+        contextMock.when(() -> Context.getBalance(staking.getAddress()))
+                .thenReturn(extraICXBalance.multiply(BigInteger.TWO).add(stakeAmount));
+        contextMock.when(() -> Context.call(eq(sicx.getAddress()), eq("updateRate"), any(BigInteger.class)))
+                .thenThrow(new UserRevertedException("updateRate failed"));
+        Executable stake = () -> sm.call(owner, stakeAmount, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        expectErrorMessage(stake, "updateRate failed");
+    }
+
     @Test
     void toggleStakingOn() {
         assertEquals(true, staking.call("getStakingOn"));
@@ -513,19 +542,55 @@ class StakingTest extends TestBase {
         contextMock.verify(claimIScore, times(1));
     }
 
+    @Test
+    void checksMemoizedPerBlock() {
+        Account newPrep = sm.createAccount();
+        PrepDelegations delegation = new PrepDelegations();
+        delegation._address = newPrep.getAddress();
+        delegation._votes_in_per = HUNDRED_PERCENTAGE;
+
+        long blockHeight = sm.getBlock().getHeight() + 1;
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight);
+        staking.invoke(owner, "delegate", (Object) new PrepDelegations[]{delegation});
+        staking.invoke(alice, "delegate", (Object) new PrepDelegations[]{delegation});
+        contextMock.verify(getStake, times(1));
+        contextMock.verify(queryIscore, times(1));
+
+        // I-Score claimed in a block is accounted for by the next call in the same block
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight + 1);
+        iScore.put("estimatedICX", BigInteger.TEN);
+        contextMock.when(queryIscore).thenReturn(iScore);
+        staking.invoke(owner, "delegate", (Object) new PrepDelegations[]{delegation});
+        staking.invoke(alice, "delegate", (Object) new PrepDelegations[]{delegation});
+        staking.invoke(owner, "delegate", (Object) new PrepDelegations[]{delegation});
+        contextMock.verify(getStake, times(3));
+        contextMock.verify(queryIscore, times(2));
+        contextMock.verify(claimIScore, times(1));
+    }
+
     @Test
     void claimUnstakedICX() {
         BigInteger icxToClaim = BigInteger.valueOf(599L);
         BigInteger icxPayable = BigInteger.valueOf(401L);
 
-        doReturn(BigInteger.TEN).when(stakingSpy).claimableICX(any(Address.class));
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(199L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        staking.invoke(sicx, "tokenFallback", owner.getAddress(), icxPayable, getUnstakeJsonData().toString()
+                .getBytes());
+
+        // Release the whole request
+        contextMock.when(() -> Context.getBalance(any(Address.class))).thenReturn(icxPayable.add(BigInteger.TEN));
+        contextMock.when(getStake).thenReturn(Map.of("unstakes", List.of()));
+        sm.call(sm.createAccount(), BigInteger.TEN, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        assertEquals(icxPayable, staking.call("claimableICX", owner.getAddress()));
+
         doReturn(BigInteger.TWO).when(stakingSpy).totalClaimableIcx();
-        String expectedErrorMessage = "Reverted(0): Staked ICX Manager: No sufficient icx to claim. Requested: 10 " +
+        String expectedErrorMessage = "Reverted(0): Staked ICX Manager: No sufficient icx to claim. Requested: 401 " +
                 "Available: 2";
         Executable claimMoreThanAvailable = () -> staking.invoke(owner, "claimUnstakedICX", owner.getAddress());
         expectErrorMessage(claimMoreThanAvailable, expectedErrorMessage);
 
-        doReturn(icxPayable).when(stakingSpy).claimableICX(any(Address.class));
         doReturn(icxToClaim).when(stakingSpy).totalClaimableIcx();
 
         contextMock.when(() -> Context.transfer(any(Address.class), any(BigInteger.class))).then(invocationOnMock -> null);
@@ -534,6 +599,7 @@ class StakingTest extends TestBase {
         verify(stakingSpy).FundTransfer(owner.getAddress(), icxPayable,
                 icxPayable + " ICX sent to " + owner.getAddress() + ".");
         contextMock.verify(() -> Context.transfer(owner.getAddress(), icxPayable));
+        assertEquals(BigInteger.ZERO, staking.call("claimableICX", owner.getAddress()));
     }
 
     @Test
@@ -614,11 +680,129 @@ class StakingTest extends TestBase {
         assertEquals(BigInteger.valueOf(100L), staking.call("claimableICX", owner.getAddress()));
         assertEquals(BigInteger.valueOf(50L), staking.call("claimableICX", alice.getAddress()));
         assertEquals(BigInteger.valueOf(150L), staking.call("totalClaimableIcx"));
+        assertEquals(List.of(), staking.call("getUserUnstakeInfo", owner.getAddress()));
+
+        // Claiming settles released requests against the cumulative released amount
+        contextMock.when(() -> Context.transfer(any(Address.class), any(BigInteger.class))).then(invocationOnMock -> null);
+        staking.invoke(owner, "claimUnstakedICX", owner.getAddress());
+        contextMock.verify(() -> Context.transfer(owner.getAddress(), BigInteger.valueOf(100L)));
+        assertEquals(BigInteger.ZERO, staking.call("claimableICX", owner.getAddress()));
+        assertEquals(BigInteger.valueOf(50L), staking.call("claimableICX", alice.getAddress()));
+        assertEquals(BigInteger.valueOf(50L), staking.call("totalClaimableIcx"));
+    }
+
+    @Test
+    void unstakeReleaseTrimsQueueHeadUpToBatchLimit() {
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(199L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        staking.invoke(owner, "setUnstakeBatchLimit", BigInteger.ONE);
+
+        JSONObject data = getUnstakeJsonData();
+        staking.invoke(sicx, "tokenFallback", owner.getAddress(), BigInteger.valueOf(10L), data.toString().getBytes());
+        staking.invoke(sicx, "tokenFallback", alice.getAddress(), BigInteger.valueOf(20L), data.toString().getBytes());
+        staking.invoke(sicx, "tokenFallback", owner.getAddress(), BigInteger.valueOf(30L), data.toString().getBytes());
+
+        // Release all of it, only the first request is moved off the queue
+        contextMock.when(() -> Context.getBalance(any(Address.class))).thenReturn(BigInteger.valueOf(70L));
+        contextMock.when(getStake).thenReturn(Map.of("unstakes", List.of()));
+        sm.call(sm.createAccount(), BigInteger.TEN, staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        assertEquals(BigInteger.valueOf(60L), staking.call("totalClaimableIcx"));
+        assertEquals(BigInteger.valueOf(40L), staking.call("claimableICX", owner.getAddress()));
+        assertEquals(BigInteger.valueOf(20L), staking.call("claimableICX", alice.getAddress()));
+        assertEquals(List.of(), staking.call("getUnstakeInfo"));
+
+        // Requests left on the queue are settled when claimed
+        contextMock.when(() -> Context.transfer(any(Address.class), any(BigInteger.class))).then(invocationOnMock -> null);
+        staking.invoke(owner, "claimUnstakedICX", owner.getAddress());
+        contextMock.verify(() -> Context.transfer(owner.getAddress(), BigInteger.valueOf(40L)));
+        staking.invoke(alice, "claimUnstakedICX", alice.getAddress());
+        contextMock.verify(() -> Context.transfer(alice.getAddress(), BigInteger.valueOf(20L)));
+        assertEquals(BigInteger.ZERO, staking.call("totalClaimableIcx"));
+    }
+
+    @Test
+    void setDelegationSkippedForDust() {
+        Verification setDelegation = () -> Context.call(eq(SYSTEM_SCORE_ADDRESS), eq("setDelegation"),
+                any(List.class));
+
+        // First delegation is always submitted
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(199L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        contextMock.verify(setDelegation, times(1));
+
+        // Change below the dust threshold per P-Rep is not submitted
+        sm.call(owner, BigInteger.valueOf(100L), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        contextMock.verify(setDelegation, times(1));
+
+        // Change above the dust threshold per P-Rep is submitted
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(500L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+        contextMock.verify(setDelegation, times(2));
+
+        // Lowering the total stake below the submitted delegation is always submitted
+        JSONObject data = getUnstakeJsonData();
+        staking.invoke(sicx, "tokenFallback", owner.getAddress(), BigInteger.valueOf(100L),
+                data.toString().getBytes());
+        contextMock.verify(setDelegation, times(3));
+    }
+
+    @Test
+    void getUserUnstakeInfoMultipleRequests() {
+        sm.call(owner, ICX.multiply(BigInteger.valueOf(199L)), staking.getAddress(), "stakeICX",
+                new Address(new byte[Address.LENGTH]), new byte[0]);
+
+        JSONObject data = getUnstakeJsonData();
+        List<Map<String, Object>> ownerUnstakedDetails = new ArrayList<>();
+        for (long amount = 10; amount <= 30; amount += 10) {
+            staking.invoke(sicx, "tokenFallback", owner.getAddress(), BigInteger.valueOf(amount),
+                    data.toString().getBytes());
+            BigInteger blockHeight = BigInteger.valueOf(sm.getBlock().getHeight());
+            ownerUnstakedDetails.add(Map.of("amount", BigInteger.valueOf(amount), "from", owner.getAddress(),
+                    "blockHeight", blockHeight.add(unlockPeriod), "sender", owner.getAddress()));
+            staking.invoke(sicx, "tokenFallback", alice.getAddress(), BigInteger.ONE, data.toString().getBytes());
+        }
+
+        assertEquals(ownerUnstakedDetails, staking.call("getUserUnstakeInfo", owner.getAddress()));
+        assertEquals(3, ((List<?>) staking.call("getUserUnstakeInfo", alice.getAddress())).size());
+        assertEquals(6, ((List<?>) staking.call("getUnstakeInfo")).size());
     }
 
     @Test
     void transferUpdateDelegations() {
+        Account newPrep = sm.createAccount();
+        PrepDelegations delegation = new PrepDelegations();
+        delegation._address = newPrep.getAddress();
+        delegation._votes_in_per = HUNDRED_PERCENTAGE;
 
+        long blockHeight = sm.getBlock().getHeight() + 1;
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight);
+        contextMock.when(sicxBalanceOf).thenReturn(BigInteger.TEN);
+        staking.invoke(owner, "delegate", (Object) new PrepDelegations[]{delegation});
+        assertEquals(Map.of(newPrep.getAddress().toString(), BigInteger.TEN),
+                staking.call("getActualPrepDelegations"));
+
+        Executable callNotFromSicx = () -> staking.invoke(owner, "transferUpdateDelegations", owner.getAddress(),
+                alice.getAddress(), BigInteger.valueOf(5L));
+        expectErrorMessage(callNotFromSicx, "Only sicx token contract can call this function.");
+
+        // Second delegation update in the same block is only recorded
+        staking.invoke(sicx, "transferUpdateDelegations", owner.getAddress(), alice.getAddress(),
+                BigInteger.valueOf(5L));
+        assertEquals(Map.of(newPrep.getAddress().toString(), BigInteger.valueOf(5L)),
+                staking.call("getActualPrepDelegations"));
+        assertEquals(true, staking.call("isNetworkDelegationPending"));
+
+        staking.invoke(alice, "updateNetworkDelegation");
+        assertEquals(false, staking.call("isNetworkDelegationPending"));
+
+        // First transfer in a new block updates the network delegation directly
+        contextMock.when(Context::getBlockHeight).thenReturn(blockHeight + 1);
+        staking.invoke(sicx, "transferUpdateDelegations", owner.getAddress(), alice.getAddress(),
+                BigInteger.valueOf(5L));
+        assertEquals(Map.of(), staking.call("getActualPrepDelegations"));
+        assertEquals(false, staking.call("isNetworkDelegationPending"));
     }
 
     @Test
@@ -61,6 +61,12 @@ public interface BalancedOracle extends
     @XCall
     void updatePriceData(String from, String symbol, BigInteger rate, BigInteger timestamp);
 
+    /**
+     * @param prices RLP encoded list of [symbol, rate, timestamp] entries
+     */
+    @XCall
+    void updatePriceDataBatch(String from, byte[] prices);
+
     @External
     void addExternalPriceProxy(String symbol, String address, @Optional PriceProtectionParameter priceProtectionConfig);
 
@@ -73,6 +79,12 @@ public interface BalancedOracle extends
     @External(readonly = true)
     PriceProtectionConfig getExternalPriceProtectionConfig(String symbol);
 
+    @External(readonly = true)
+    BigInteger getExternalPriceTWAP(String symbol);
+
+    @External(readonly = true)
+    BigInteger getExternalPriceMedian(String symbol);
+
     @External
     void configurePythPriceId(String base, byte[] id);
 
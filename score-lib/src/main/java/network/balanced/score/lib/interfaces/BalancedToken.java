@@ -29,6 +29,7 @@ import score.annotation.External;
 import score.annotation.Optional;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
 @ScoreClient
@@ -114,6 +115,9 @@ public interface BalancedToken extends HubToken, IRC2BurnableInterface, Governan
     @External(readonly = true)
     BigInteger stakedBalanceOfAt(Address _account, BigInteger _day);
 
+    @External(readonly = true)
+    List<BigInteger> stakedBalanceOfAtBatch(Address[] _accounts, BigInteger _day);
+
     @External(readonly = true)
     BigInteger totalStakedBalanceOfAt(BigInteger _day);
 
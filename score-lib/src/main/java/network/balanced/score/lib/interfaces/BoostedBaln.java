@@ -71,6 +71,9 @@ public interface BoostedBaln extends AddressManager, TokenFallback, Version {
     @External
     void kick(Address user);
 
+    @External
+    void kickBatch(Address[] users);
+
     @External
     void withdraw();
 
@@ -80,6 +83,9 @@ public interface BoostedBaln extends AddressManager, TokenFallback, Version {
     @External(readonly = true)
     BigInteger balanceOf(Address _owner, @Optional BigInteger timestamp);
 
+    @External(readonly = true)
+    List<BigInteger> balanceOfBatch(Address[] users, @Optional BigInteger timestamp);
+
     @External(readonly = true)
     BigInteger balanceOfAt(Address _owner, BigInteger block);
 
@@ -41,6 +41,9 @@ public interface Dividends extends Name, TokenFallback, AddressManager, Version
     @External
     void onKick(Address user);
 
+    @External
+    void onBalanceUpdateBatch(Address[] users, BigInteger[] bBalnBalances);
+
     @External
     void setTimeOffset(BigInteger deltaTime);
 
@@ -59,6 +62,9 @@ public interface Dividends extends Name, TokenFallback, AddressManager, Version
     @External(readonly = true)
     List<Address> getAcceptedTokens();
 
+    @External(readonly = true)
+    Map<String, Map<String, Object>> getAcceptedTokensInfo();
+
     @External
     void addAcceptedTokens(Address _token);
 
@@ -119,6 +125,12 @@ public interface Dividends extends Name, TokenFallback, AddressManager, Version
     @External
     void updateBalnStake(Address user, BigInteger prevStakedBalance, BigInteger currentTotalSupply);
 
+    @External
+    void foldLegacyDividends(int maxDays);
+
+    @External(readonly = true)
+    BigInteger getLegacyDividendsFoldDay();
+
     @External(readonly = true)
     Map<String, BigInteger> getUserDividends(Address _account, @Optional int _start, @Optional int _end);
 
@@ -103,6 +103,9 @@ public interface FeeHandler extends Name, AddressManager, Version {
     @External(readonly = true)
     List<Address> getRoutedTokens();
 
+    @External(readonly = true)
+    List<Address> getPendingFeeTokens();
+
     @External(readonly = true)
     int getNextAllowedAddressIndex();
 }
@@ -52,6 +52,9 @@ public interface Rewards extends
     @External(readonly = true)
     Map<String, BigInteger> getRewards(String _holder);
 
+    @External(readonly = true)
+    Map<String, Object> getRewardsBatch(String[] _holders);
+
     @External(readonly = true)
     BigInteger getBalnHolding(String _holder);
 
@@ -121,6 +124,9 @@ public interface Rewards extends
     @External
     void onBalanceUpdate(Address user, BigInteger balance);
 
+    @External
+    void onBalanceUpdateBatch(Address[] users, BigInteger[] balances);
+
     @External
     void setBoostWeight(BigInteger weight);
 
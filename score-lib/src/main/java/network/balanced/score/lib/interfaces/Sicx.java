@@ -41,6 +41,9 @@ public interface Sicx extends StakingAddress, HubToken, IRC2BurnableInterface, V
     @External(readonly = true)
     String getPeg();
 
+    @External
+    void updateRate(BigInteger _rate);
+
     @External(readonly = true)
     BigInteger priceInLoop();
 
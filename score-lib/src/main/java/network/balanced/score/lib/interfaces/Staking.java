@@ -119,6 +119,12 @@ public interface Staking extends Version, Fallback {
     @External
     void transferUpdateDelegations(Address _from, Address _to, BigInteger _value);
 
+    @External
+    void updateNetworkDelegation();
+
+    @External(readonly = true)
+    boolean isNetworkDelegationPending();
+
     @External(readonly = true)
     List<List<Object>> getUnstakeInfo();
 
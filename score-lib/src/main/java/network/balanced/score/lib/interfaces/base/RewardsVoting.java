@@ -39,6 +39,9 @@ public interface RewardsVoting {
     @External
     void checkpoint();
 
+    @External
+    void checkpointWeeks(int maxWeeks);
+
     @External
     void checkpointSource(String name);
 
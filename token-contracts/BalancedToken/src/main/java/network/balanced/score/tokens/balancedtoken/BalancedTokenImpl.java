@@ -24,8 +24,10 @@ import score.*;
 import score.annotation.EventLog;
 import score.annotation.External;
 import score.annotation.Optional;
+import scorex.util.ArrayList;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
 import foundation.icon.xcall.NetworkAddress;
@@ -378,12 +380,18 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
         Context.require(stakingEnabled.getOrDefault(false), TAG + ": Staking must first be enabled.");
     }
 
+    // The unstaking period is only set while an amount is unstaking, so it doubles as the flag for pending releases
     private void makeAvailable(Address from) {
         DictDB<Integer, BigInteger> stakingDetail = stakedBalances.at(from);
 
-        BigInteger unstakingTime = stakingDetail.getOrDefault(Status.UNSTAKING_PERIOD.code, BigInteger.ZERO);
-        if (unstakingTime.compareTo(BigInteger.valueOf(Context.getBlockTimestamp())) <= 0) {
-            BigInteger currUnstaked = stakingDetail.getOrDefault(Status.UNSTAKING.code, BigInteger.ZERO);
+        BigInteger unstakingTime = stakingDetail.get(Status.UNSTAKING_PERIOD.code);
+        if (unstakingTime == null || unstakingTime.compareTo(BigInteger.valueOf(Context.getBlockTimestamp())) > 0) {
+            return;
+        }
+
+        stakingDetail.set(Status.UNSTAKING_PERIOD.code, null);
+        BigInteger currUnstaked = stakingDetail.getOrDefault(Status.UNSTAKING.code, BigInteger.ZERO);
+        if (currUnstaked.signum() > 0) {
             stakingDetail.set(Status.UNSTAKING.code, null);
             stakingDetail.set(Status.AVAILABLE.code, stakingDetail.getOrDefault(Status.AVAILABLE.code,
                     BigInteger.ZERO).add(currUnstaked));
@@ -423,9 +431,14 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
         }
 
         stakingDetail.set(Status.STAKED.code, _value);
-        stakingDetail.set(Status.UNSTAKING.code, unstakeAmount);
-        stakingDetail.set(Status.UNSTAKING_PERIOD.code, BigInteger.valueOf(Context.getBlockTimestamp())
-                .add(unstakingPeriod.getOrDefault(BigInteger.ZERO)));
+        if (unstakeAmount.signum() > 0) {
+            stakingDetail.set(Status.UNSTAKING.code, unstakeAmount);
+            stakingDetail.set(Status.UNSTAKING_PERIOD.code, BigInteger.valueOf(Context.getBlockTimestamp())
+                    .add(unstakingPeriod.getOrDefault(BigInteger.ZERO)));
+        } else {
+            stakingDetail.set(Status.UNSTAKING.code, null);
+            stakingDetail.set(Status.UNSTAKING_PERIOD.code, null);
+        }
 
         BigInteger newTotal = totalStakedBalance.getOrDefault(BigInteger.ZERO).add(stakeIncrement);
         totalStakedBalance.set(newTotal);
@@ -559,15 +572,9 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
 
         BigInteger currentId = this.getDay();
         int totalSnapshotsTaken = totalSnapshots.getOrDefault(account, 0);
-
-        BranchDB<Integer, DictDB<String, BigInteger>> stakeSnapshots = BalancedTokenVariables.stakeSnapshots.at(account);
-        if (totalSnapshotsTaken > 0 && stakeSnapshots.at(totalSnapshotsTaken - 1).getOrDefault(IDS, BigInteger.ZERO)
-                .equals(currentId)) {
-            stakeSnapshots.at(totalSnapshotsTaken - 1).set(AMOUNT, amount);
-        } else {
-            stakeSnapshots.at(totalSnapshotsTaken).set(IDS, currentId);
-            stakeSnapshots.at(totalSnapshotsTaken).set(AMOUNT, amount);
-            totalSnapshots.set(account, totalSnapshotsTaken + 1);
+        int newTotal = getStakeSnapshots(account).update(totalSnapshotsTaken, currentId, amount);
+        if (newTotal != totalSnapshotsTaken) {
+            totalSnapshots.set(account, newTotal);
         }
     }
 
@@ -579,17 +586,20 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
 
         BigInteger currentId = this.getDay();
         int totalSnapshotsTaken = totalStakedSnapshotCount.getOrDefault(0);
-
-        if (totalSnapshotsTaken > 0 && totalStakedSnapshot.at(totalSnapshotsTaken - 1).getOrDefault(IDS,
-                BigInteger.ZERO).equals(currentId)) {
-            totalStakedSnapshot.at(totalSnapshotsTaken - 1).set(AMOUNT, amount);
-        } else {
-            totalStakedSnapshot.at(totalSnapshotsTaken).set(IDS, currentId);
-            totalStakedSnapshot.at(totalSnapshotsTaken).set(AMOUNT, amount);
-            totalStakedSnapshotCount.set(totalSnapshotsTaken + 1);
+        int newTotal = getTotalStakedSnapshots().update(totalSnapshotsTaken, currentId, amount);
+        if (newTotal != totalSnapshotsTaken) {
+            totalStakedSnapshotCount.set(newTotal);
         }
     }
 
+    private SnapshotDB getStakeSnapshots(Address account) {
+        return new SnapshotDB(stakeSnapshotRecords.at(account), stakeSnapshots.at(account));
+    }
+
+    private SnapshotDB getTotalStakedSnapshots() {
+        return new SnapshotDB(totalStakedSnapshotRecords, totalStakedSnapshot);
+    }
+
     @External(readonly = true)
     public BigInteger stakedBalanceOfAt(Address _account, BigInteger _day) {
         BigInteger currentDay = this.getDay();
@@ -597,40 +607,22 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
             Context.revert(TAG + ": Asked _day is greater than current day");
         }
 
-        int totalSnapshotsTaken = totalSnapshots.getOrDefault(_account, 0);
-        if (totalSnapshotsTaken == 0) {
-            return BigInteger.ZERO;
-        }
-
-        BranchDB<Integer, DictDB<String, BigInteger>> stakeSnapshotDetail = stakeSnapshots.at(_account);
-        if (stakeSnapshotDetail.at(totalSnapshotsTaken - 1).getOrDefault(IDS, BigInteger.ZERO).compareTo(_day) <= 0) {
-            return stakeSnapshotDetail.at(totalSnapshotsTaken - 1).getOrDefault(AMOUNT, BigInteger.ZERO);
-        }
-
-        return getSnapshotAmount(_day, totalSnapshotsTaken, stakeSnapshotDetail);
+        return getStakeSnapshots(_account).getAmountAt(totalSnapshots.getOrDefault(_account, 0), _day);
     }
 
-    private BigInteger getSnapshotAmount(BigInteger _day, int totalSnapshotsTaken,
-            BranchDB<Integer, DictDB<String, BigInteger>> stakeSnapshotDetail) {
-        if (stakeSnapshotDetail.at(0).getOrDefault(IDS, BigInteger.ZERO).compareTo(_day) > 0) {
-            return BigInteger.ZERO;
+    @External(readonly = true)
+    public List<BigInteger> stakedBalanceOfAtBatch(Address[] _accounts, BigInteger _day) {
+        BigInteger currentDay = this.getDay();
+        if (_day.compareTo(currentDay) > 0) {
+            Context.revert(TAG + ": Asked _day is greater than current day");
         }
 
-        int low = 0;
-        int high = totalSnapshotsTaken - 1;
-        while (high > low) {
-            int mid = high - (high - low) / 2;
-            DictDB<String, BigInteger> midValue = stakeSnapshotDetail.at(mid);
-            if (midValue.getOrDefault(IDS, BigInteger.ZERO).equals(_day)) {
-                return midValue.getOrDefault(AMOUNT, BigInteger.ZERO);
-            } else if (midValue.getOrDefault(IDS, BigInteger.ZERO).compareTo(_day) < 0) {
-                low = mid;
-            } else {
-                high = mid - 1;
-            }
+        List<BigInteger> balances = new ArrayList<>();
+        for (Address account : _accounts) {
+            balances.add(getStakeSnapshots(account).getAmountAt(totalSnapshots.getOrDefault(account, 0), _day));
         }
 
-        return stakeSnapshotDetail.at(low).getOrDefault(AMOUNT, BigInteger.ZERO);
+        return balances;
     }
 
     @External(readonly = true)
@@ -640,18 +632,7 @@ public class BalancedTokenImpl extends HubTokenImpl implements BalancedToken {
             Context.revert(TAG + ": Asked _day is greater than current day");
         }
 
-        int totalSnapshotsTaken = totalStakedSnapshotCount.getOrDefault(0);
-        if (totalSnapshotsTaken == 0) {
-            return BigInteger.ZERO;
-        }
-
-        BranchDB<Integer, DictDB<String, BigInteger>> totalStakedSnapshot = BalancedTokenVariables.totalStakedSnapshot;
-        BigInteger id = totalStakedSnapshot.at(totalSnapshotsTaken - 1).getOrDefault(IDS, BigInteger.ZERO);
-        if (id.compareTo(_day) <= 0) {
-            return totalStakedSnapshot.at(totalSnapshotsTaken - 1).getOrDefault(AMOUNT, BigInteger.ZERO);
-        }
-
-        return getSnapshotAmount(_day, totalSnapshotsTaken, totalStakedSnapshot);
+        return getTotalStakedSnapshots().getAmountAt(totalStakedSnapshotCount.getOrDefault(0), _day);
     }
 
     @External
@@ -42,6 +42,13 @@ public class BalancedTokenVariables {
     static final VarDB<Integer> totalStakedSnapshotCount = Context.newVarDB(TOTAL_STAKED_SNAPSHOT_COUNT,
             Integer.class);
 
+    // Packed snapshots, see SnapshotDB: [address][snapshot_id] = amount << 32 | day
+    static final BranchDB<Address, DictDB<Integer, BigInteger>> stakeSnapshotRecords = Context
+            .newBranchDB(STAKE_SNAPSHOT_RECORDS, BigInteger.class);
+    // [snapshot_id] = amount << 32 | day
+    static final DictDB<Integer, BigInteger> totalStakedSnapshotRecords = Context
+            .newDictDB(TOTAL_STAKED_SNAPSHOT_RECORDS, BigInteger.class);
+
     static final VarDB<Boolean> enableSnapshots = Context.newVarDB(ENABLE_SNAPSHOTS, Boolean.class);
     static final VarDB<Address> admin = Context.newVarDB(ADMIN, Address.class);
 
@@ -62,6 +62,8 @@ public interface Constants {
     String TOTAL_SNAPSHOTS = "total_snapshots";
     String TOTAL_STAKED_SNAPSHOT = "total_staked_snapshot";
     String TOTAL_STAKED_SNAPSHOT_COUNT = "total_staked_snapshot_count";
+    String STAKE_SNAPSHOT_RECORDS = "stake_snapshot_records";
+    String TOTAL_STAKED_SNAPSHOT_RECORDS = "total_staked_snapshot_records";
 
     String ENABLE_SNAPSHOTS = "enable_snapshots";
     String ADMIN = "admin_address";
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.tokens.balancedtoken;
+
+import score.BranchDB;
+import score.DictDB;
+
+import java.math.BigInteger;
+
+import static network.balanced.score.tokens.balancedtoken.Constants.AMOUNT;
+import static network.balanced.score.tokens.balancedtoken.Constants.IDS;
+
+/**
+ * Day indexed staked balance snapshots, in increasing day order. Each snapshot is a single packed value,
+ * amount << 32 | day. Snapshots written before packing keep their separate "ids" and "amount" entries and are read
+ * from there until their index is written again.
+ */
+class SnapshotDB {
+    private static final int DAY_BITS = 32;
+    private static final BigInteger DAY_MASK = BigInteger.ONE.shiftLeft(DAY_BITS).subtract(BigInteger.ONE);
+
+    private final DictDB<Integer, BigInteger> records;
+    private final BranchDB<Integer, DictDB<String, BigInteger>> legacy;
+
+    SnapshotDB(DictDB<Integer, BigInteger> records, BranchDB<Integer, DictDB<String, BigInteger>> legacy) {
+        this.records = records;
+        this.legacy = legacy;
+    }
+
+    /**
+     * Records the amount for the given day and returns the new snapshot count.
+     */
+    int update(int count, BigInteger day, BigInteger amount) {
+        if (count > 0 && getDay(get(count - 1)).equals(day)) {
+            records.set(count - 1, pack(day, amount));
+            return count;
+        }
+
+        records.set(count, pack(day, amount));
+        return count + 1;
+    }
+
+    BigInteger getAmountAt(int count, BigInteger day) {
+        if (count == 0) {
+            return BigInteger.ZERO;
+        }
+
+        BigInteger last = get(count - 1);
+        if (getDay(last).compareTo(day) <= 0) {
+            return getAmount(last);
+        }
+
+        BigInteger first = get(0);
+        if (getDay(first).compareTo(day) > 0) {
+            return BigInteger.ZERO;
+        }
+
+        int low = 0;
+        int high = count - 1;
+        BigInteger record = first;
+        while (high > low) {
+            int mid = high - (high - low) / 2;
+            BigInteger midRecord = get(mid);
+            int cmp = getDay(midRecord).compareTo(day);
+            if (cmp == 0) {
+                return getAmount(midRecord);
+            } else if (cmp < 0) {
+                low = mid;
+                record = midRecord;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return getAmount(record);
+    }
+
+    private BigInteger get(int index) {
+        BigInteger record = records.get(index);
+        if (record != null) {
+            return record;
+        }
+
+        DictDB<String, BigInteger> snapshot = legacy.at(index);
+        return pack(snapshot.getOrDefault(IDS, BigInteger.ZERO), snapshot.getOrDefault(AMOUNT, BigInteger.ZERO));
+    }
+
+    private static BigInteger pack(BigInteger day, BigInteger amount) {
+        return amount.shiftLeft(DAY_BITS).or(day);
+    }
+
+    private static BigInteger getDay(BigInteger record) {
+        return record.and(DAY_MASK);
+    }
+
+    private static BigInteger getAmount(BigInteger record) {
+        return record.shiftRight(DAY_BITS);
+    }
+}
@@ -33,6 +33,7 @@ import score.Address;
 import score.Context;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
 import static java.math.BigInteger.*;
@@ -303,6 +304,45 @@ class BalancedTokenImplTest extends TestBase {
 
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void ShouldReleaseUnstakedBalanceOnTransfer() {
+        balancedToken.invoke(governanceScore, "setAdmin", adminAccount.getAddress());
+        balancedToken.invoke(owner, "setMinter", adminAccount.getAddress());
+        balancedToken.invoke(governanceScore, "setDividends", dividendsScore.getAddress());
+        balancedToken.invoke(governanceScore, "setDex", mockDexScore.getAddress());
+        contextMock.when(() -> Context.call(BigInteger.class, mockDexScore.getAddress(), "getTimeOffset"))
+                .thenReturn(BigInteger.valueOf(500));
+        balancedToken.invoke(owner, "setTimeOffset");
+
+        Account user = sm.createAccount();
+        BigInteger amountToMint = BigInteger.valueOf(1000L).multiply(ICX);
+        balancedToken.invoke(adminAccount, "mintTo", user.getAddress(), amountToMint, new byte[0]);
+
+        BigInteger stakedAmount = amountToMint.divide(TWO);
+        mockUpdateBalnStake(user.getAddress(), BigInteger.ZERO, stakedAmount);
+        balancedToken.invoke(user, "stake", stakedAmount);
+
+        BigInteger unstakedAmount = stakedAmount.divide(TWO);
+        mockUpdateBalnStake(user.getAddress(), stakedAmount, stakedAmount.subtract(unstakedAmount));
+        balancedToken.invoke(user, "stake", stakedAmount.subtract(unstakedAmount));
+        assertEquals(unstakedAmount, balancedToken.call("unstakedBalanceOf", user.getAddress()));
+
+        BigInteger unstakingPeriod = (BigInteger) balancedToken.call("getUnstakingPeriod");
+        sm.getBlock().increase(DAY * unstakingPeriod.longValue() + 1);
+
+        Account receiver = sm.createAccount();
+        BigInteger available = amountToMint.subtract(stakedAmount).add(unstakedAmount);
+        balancedToken.invoke(user, "transfer", receiver.getAddress(), available, new byte[0]);
+
+        Map<String, BigInteger> balanceDetails = (Map<String, BigInteger>) balancedToken.call("detailsBalanceOf",
+                user.getAddress());
+        assertEquals(ZERO, balanceDetails.get("Available balance"));
+        assertEquals(ZERO, balanceDetails.get("Unstaking balance"));
+        assertEquals(ZERO, balanceDetails.get("Unstaking time (in microseconds)"));
+        assertEquals(available, balancedToken.call("availableBalanceOf", receiver.getAddress()));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     void ShouldTransfer() {
@@ -462,6 +502,11 @@ class BalancedTokenImplTest extends TestBase {
         assertNotNull(stakedBalance);
         assertEquals(stakedAmount, stakedBalance);
 
+        Address[] accounts = new Address[]{owner.getAddress(), adminAccount.getAddress()};
+        assertEquals(List.of(stakedAmount, ZERO), balancedToken.call("stakedBalanceOfAtBatch", accounts, day));
+        assertEquals(List.of(stakedAmountAtSecondDay, ZERO), balancedToken.call("stakedBalanceOfAtBatch", accounts,
+                day.add(BigInteger.ONE)));
+
         Map<String, BigInteger> balanceDetails = (Map<String, BigInteger>) balancedToken.call("detailsBalanceOf",
                 owner.getAddress());
         assertNotNull(balanceDetails);
@@ -475,6 +520,54 @@ class BalancedTokenImplTest extends TestBase {
         assertEquals(stakedAmountAtSecondDay, balanceDetails.get("Unstaking balance"));
     }
 
+    @Test
+    void ShouldGetStakedBalanceOfAtFromLegacySnapshots() {
+        Score legacyToken = sm.deploy(owner, LegacySnapshotsTester.class, governanceScore.getAddress());
+        legacyToken.invoke(governanceScore, "setDividends", dividendsScore.getAddress());
+        if (!(boolean) legacyToken.call("getSnapshotEnabled")) {
+            legacyToken.invoke(owner, "toggleEnableSnapshot");
+        }
+        legacyToken.invoke(governanceScore, "setAdmin", adminAccount.getAddress());
+        legacyToken.invoke(owner, "setMinter", adminAccount.getAddress());
+        BigInteger amountToMint = BigInteger.valueOf(10000L).multiply(ICX);
+        legacyToken.invoke(adminAccount, "mintTo", owner.getAddress(), amountToMint, "init gold".getBytes());
+        if (!(boolean) legacyToken.call("getStakingEnabled")) {
+            legacyToken.invoke(governanceScore, "toggleStakingEnabled");
+        }
+        legacyToken.invoke(governanceScore, "setDex", mockDexScore.getAddress());
+        contextMock.when(() -> Context.call(BigInteger.class, mockDexScore.getAddress(), "getTimeOffset"))
+                .thenReturn(BigInteger.valueOf(500));
+        legacyToken.invoke(owner, "setTimeOffset");
+
+        // Snapshots as stored before packing, two days ago and today
+        BigInteger today = (BigInteger) legacyToken.call("getDay");
+        BigInteger firstAmount = BigInteger.valueOf(3000L).multiply(ICX);
+        BigInteger secondAmount = BigInteger.valueOf(1000L).multiply(ICX);
+        legacyToken.invoke(owner, "setLegacyStakeSnapshot", owner.getAddress(), 0, today.subtract(TWO), firstAmount);
+        legacyToken.invoke(owner, "setLegacyStakeSnapshot", owner.getAddress(), 1, today, secondAmount);
+
+        Address[] accounts = new Address[]{owner.getAddress(), adminAccount.getAddress()};
+        assertEquals(ZERO, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today.subtract(BigInteger.valueOf(3))));
+        assertEquals(firstAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today.subtract(TWO)));
+        assertEquals(firstAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today.subtract(ONE)));
+        assertEquals(secondAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today));
+        assertEquals(List.of(firstAmount, ZERO), legacyToken.call("stakedBalanceOfAtBatch", accounts,
+                today.subtract(ONE)));
+        assertEquals(List.of(secondAmount, ZERO), legacyToken.call("stakedBalanceOfAtBatch", accounts, today));
+
+        // Staking again today overwrites the legacy snapshot of today with a packed one
+        BigInteger stakedAmount = BigInteger.valueOf(2000L).multiply(ICX);
+        mockUpdateBalnStake(owner.getAddress(), ZERO, stakedAmount);
+        legacyToken.invoke(owner, "stake", stakedAmount);
+
+        assertEquals(firstAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today.subtract(TWO)));
+        assertEquals(firstAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today.subtract(ONE)));
+        assertEquals(stakedAmount, legacyToken.call("stakedBalanceOfAt", owner.getAddress(), today));
+        assertEquals(List.of(firstAmount, ZERO), legacyToken.call("stakedBalanceOfAtBatch", accounts,
+                today.subtract(ONE)));
+        assertEquals(List.of(stakedAmount, ZERO), legacyToken.call("stakedBalanceOfAtBatch", accounts, today));
+    }
+
     @Test
     void ShouldGetTotalStakedBalanceOfAt() {
         balancedToken.invoke(governanceScore, "setDividends", dividendsScore.getAddress());
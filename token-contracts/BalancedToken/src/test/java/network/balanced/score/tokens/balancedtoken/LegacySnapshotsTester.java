@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024-2024 Balanced.network.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package network.balanced.score.tokens.balancedtoken;
+
+import score.Address;
+import score.DictDB;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static network.balanced.score.tokens.balancedtoken.BalancedTokenVariables.stakeSnapshots;
+import static network.balanced.score.tokens.balancedtoken.BalancedTokenVariables.totalSnapshots;
+import static network.balanced.score.tokens.balancedtoken.Constants.AMOUNT;
+import static network.balanced.score.tokens.balancedtoken.Constants.IDS;
+
+/**
+ * BalancedToken with a setter for stake snapshots in the layout written before they were packed.
+ */
+public class LegacySnapshotsTester extends BalancedTokenImpl {
+
+    public LegacySnapshotsTester(Address _governance) {
+        super(_governance);
+    }
+
+    @External
+    public void setLegacyStakeSnapshot(Address account, int index, BigInteger day, BigInteger amount) {
+        DictDB<String, BigInteger> snapshot = stakeSnapshots.at(account).at(index);
+        snapshot.set(IDS, day);
+        snapshot.set(AMOUNT, amount);
+        if (totalSnapshots.getOrDefault(account, 0) <= index) {
+            totalSnapshots.set(account, index + 1);
+        }
+    }
+}
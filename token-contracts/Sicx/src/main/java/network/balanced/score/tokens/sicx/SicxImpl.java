@@ -42,6 +42,7 @@ public class SicxImpl extends HubTokenImpl implements Sicx {
     private static final String STAKING = "staking";
     public static final String STATUS_MANAGER = "status_manager";
     private static final String VERSION = "version";
+    private static final String RATE = "rate";
     private final String MINTER = "admin";
 
     private static final VarDB<Address> stakingAddress = Context.newVarDB(STAKING, Address.class);
@@ -49,6 +50,8 @@ public class SicxImpl extends HubTokenImpl implements Sicx {
 
     private final VarDB<String> currentVersion = Context.newVarDB(VERSION, String.class);
     protected final VarDB<Address> minter = Context.newVarDB(MINTER, Address.class);
+    // Pushed by staking whenever the rate changes
+    private final VarDB<BigInteger> rate = Context.newVarDB(RATE, BigInteger.class);
 
     public SicxImpl(Address _admin, Address _governance) {
         super("",TOKEN_NAME, SYMBOL_NAME, DECIMALS);
@@ -79,6 +82,8 @@ public class SicxImpl extends HubTokenImpl implements Sicx {
     public void setStaking(Address _address) {
         onlyOwner();
         stakingAddress.set(_address);
+        // A rate pushed by the previous staking contract no longer applies
+        rate.set(null);
     }
 
     @External(readonly = true)
@@ -97,8 +102,19 @@ public class SicxImpl extends HubTokenImpl implements Sicx {
         return statusManager.get();
     }
 
+    @External
+    public void updateRate(BigInteger _rate) {
+        only(stakingAddress);
+        rate.set(_rate);
+    }
+
     @External(readonly = true)
     public BigInteger priceInLoop() {
+        BigInteger currentRate = rate.get();
+        if (currentRate != null) {
+            return currentRate;
+        }
+
         return (BigInteger) Context.call(stakingAddress.get(), "getTodayRate");
     }
 
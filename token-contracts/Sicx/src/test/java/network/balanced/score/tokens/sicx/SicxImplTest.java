@@ -140,6 +140,23 @@ class SicxImplTest extends TestBase {
         assertEquals(BigInteger.ONE, sicxScore.call("lastPriceInLoop"));
     }
 
+    @Test
+    void updateRate() {
+        Executable invalidCaller = () -> sicxScore.invoke(owner, "updateRate", BigInteger.TWO);
+        String expectedErrorMessage = "Authorization Check: Authorization failed. Caller: " + owner.getAddress() + " " +
+                "Authorized Caller: " + staking.getAddress();
+        expectErrorMessage(invalidCaller, expectedErrorMessage);
+
+        contextMock.when(getTodayRate).thenReturn(BigInteger.ONE);
+        sicxScore.invoke(staking, "updateRate", BigInteger.TWO);
+        assertEquals(BigInteger.TWO, sicxScore.call("priceInLoop"));
+        assertEquals(BigInteger.TWO, sicxScore.call("lastPriceInLoop"));
+
+        // Changing the staking contract drops the pushed rate
+        sicxScore.invoke(owner, "setStaking", staking.getAddress());
+        assertEquals(BigInteger.ONE, sicxScore.call("priceInLoop"));
+    }
+
     @Test
     void burn() {
         // sender not admin
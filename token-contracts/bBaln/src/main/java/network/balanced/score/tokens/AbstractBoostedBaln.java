@@ -33,6 +33,8 @@ import static network.balanced.score.lib.utils.Constants.MAX_LOCK_TIME;
 import static network.balanced.score.lib.utils.Math.pow;
 import static network.balanced.score.lib.utils.BalancedAddressManager.*;
 import static network.balanced.score.lib.utils.NonReentrant.globalReentryLock;
+import static network.balanced.score.tokens.Constants.BLOCK_EPOCH_INDEX_INTERVAL;
+import static network.balanced.score.tokens.Constants.BLOCK_EPOCH_INDEX_SCAN_LIMIT;
 import static network.balanced.score.tokens.Constants.U_WEEK_IN_MICRO_SECONDS;
 import static network.balanced.score.tokens.Constants.WEEK_IN_MICRO_SECONDS;
 import static network.balanced.score.tokens.utils.UnsignedBigInteger.pow10;
@@ -67,6 +69,12 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
             BigInteger.class);
     protected final DictDB<BigInteger, BigInteger> slopeChanges = Context.newDictDB("Boosted_Baln_slope_changes",
             BigInteger.class);
+    // First epoch whose point falls in each week, keyed by the start of the week
+    protected final DictDB<BigInteger, BigInteger> weekEpochIndex = Context.newDictDB(
+            "Boosted_baln_week_epoch_index", BigInteger.class);
+    // First epoch whose point falls in each block bucket, see BLOCK_EPOCH_INDEX_INTERVAL
+    protected final DictDB<BigInteger, BigInteger> blockEpochIndex = Context.newDictDB(
+            "Boosted_baln_block_epoch_index", BigInteger.class);
 
     protected final EnumerableSet<Address> users = new EnumerableSet<>("users_list", Address.class);
     protected final VarDB<BigInteger> minimumLockingAmount = Context.newVarDB("Boosted_baln_minimum_locking_amount",
@@ -143,6 +151,49 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
         BigInteger min = BigInteger.ZERO;
         BigInteger max = maxEpoch;
 
+        Point latest = this.pointHistory.getOrDefault(maxEpoch, new Point());
+        if (latest.block.compareTo(block) <= 0) {
+            return maxEpoch;
+        }
+
+        // The first epoch of the nearest populated bucket after the block's is above the block, so the epoch before
+        // it is an upper bound and the answer whenever its point is not above the block. Likewise the epoch before
+        // the first one of the nearest populated bucket at or before the block's is a lower bound, checked since
+        // buckets written around an upgrade may be missing earlier epochs. Both scans are bounded, and a side with
+        // no populated bucket in range stays open.
+        BigInteger bucket = block.divide(BLOCK_EPOCH_INDEX_INTERVAL);
+        BigInteger lastBucket = latest.getBlock().divide(BLOCK_EPOCH_INDEX_INTERVAL);
+        for (int i = 1; i <= BLOCK_EPOCH_INDEX_SCAN_LIMIT; i++) {
+            BigInteger nextBucket = bucket.add(BigInteger.valueOf(i));
+            if (nextBucket.compareTo(lastBucket) > 0) {
+                break;
+            }
+
+            BigInteger nextBucketStart = this.blockEpochIndex.get(nextBucket);
+            if (nextBucketStart != null) {
+                if (nextBucketStart.signum() > 0 && nextBucketStart.compareTo(maxEpoch) <= 0) {
+                    max = nextBucketStart.subtract(BigInteger.ONE);
+                    if (this.pointHistory.getOrDefault(max, new Point()).block.compareTo(block) <= 0) {
+                        return max;
+                    }
+                }
+                break;
+            }
+        }
+
+        for (int i = 0; i <= BLOCK_EPOCH_INDEX_SCAN_LIMIT && i <= bucket.intValue(); i++) {
+            BigInteger bucketStart = this.blockEpochIndex.get(bucket.subtract(BigInteger.valueOf(i)));
+            if (bucketStart != null) {
+                if (bucketStart.signum() > 0 && bucketStart.compareTo(max) <= 0) {
+                    BigInteger lowerBound = bucketStart.subtract(BigInteger.ONE);
+                    if (this.pointHistory.getOrDefault(lowerBound, new Point()).block.compareTo(block) <= 0) {
+                        min = lowerBound;
+                    }
+                }
+                break;
+            }
+        }
+
         for (int index = 0; index < 256 && min.compareTo(max) < 0; ++index) {
             BigInteger mid = min.add(max).add(BigInteger.ONE).divide(BigInteger.TWO);
             Point point = this.pointHistory.getOrDefault(mid, new Point());
@@ -156,6 +207,40 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
         return min;
     }
 
+    protected BigInteger findTimestampEpoch(BigInteger timestamp, BigInteger maxEpoch) {
+        BigInteger min = BigInteger.ZERO;
+        BigInteger max = maxEpoch;
+
+        // The epochs of a week run from its first epoch up to the one before the next week's first epoch. Weeks from
+        // before this index existed have no entry and leave that side of the search open.
+        BigInteger weekStart = getWeekStart(timestamp);
+        BigInteger weekFirstEpoch = this.weekEpochIndex.get(weekStart);
+        if (weekFirstEpoch != null && weekFirstEpoch.compareTo(maxEpoch) <= 0) {
+            if (this.pointHistory.getOrDefault(weekFirstEpoch, new Point()).timestamp.compareTo(timestamp) > 0) {
+                return weekFirstEpoch.subtract(BigInteger.ONE).max(BigInteger.ZERO);
+            }
+            min = weekFirstEpoch;
+        }
+
+        BigInteger nextWeekFirstEpoch = this.weekEpochIndex.get(weekStart.add(WEEK_IN_MICRO_SECONDS));
+        if (nextWeekFirstEpoch != null && nextWeekFirstEpoch.compareTo(min) > 0
+                && nextWeekFirstEpoch.compareTo(maxEpoch) <= 0) {
+            max = nextWeekFirstEpoch.subtract(BigInteger.ONE);
+        }
+
+        for (int index = 0; index < 256 && min.compareTo(max) < 0; ++index) {
+            BigInteger mid = min.add(max).add(BigInteger.ONE).divide(BigInteger.TWO);
+            Point point = this.pointHistory.getOrDefault(mid, new Point());
+            if (point.timestamp.compareTo(timestamp) <= 0) {
+                min = mid;
+            } else {
+                max = mid.subtract(BigInteger.ONE);
+            }
+        }
+
+        return min;
+    }
+
     protected BigInteger findUserPointHistory(Address address, BigInteger block) {
         BigInteger min = BigInteger.ZERO;
         BigInteger max = this.userPointEpoch.getOrDefault(address, BigInteger.ZERO);
@@ -204,6 +289,43 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
         return lastPoint.bias;
     }
 
+    /**
+     * Total supply at any timestamp. Times after the last global point walk forward from it, earlier times start
+     * from the last point at or before them, so that the walk never crosses a week boundary.
+     */
+    protected BigInteger supplyAt(BigInteger time) {
+        BigInteger epoch = this.epoch.get();
+        Point point = this.pointHistory.getOrDefault(epoch, new Point());
+        if (point.timestamp.compareTo(time) <= 0) {
+            return supplyAt(point, time);
+        }
+
+        point = this.pointHistory.getOrDefault(findTimestampEpoch(time, epoch), new Point());
+        if (point.timestamp.compareTo(time) > 0) {
+            return BigInteger.ZERO;
+        }
+
+        return supplyAt(point, time);
+    }
+
+    private BigInteger getWeekStart(BigInteger time) {
+        return time.divide(WEEK_IN_MICRO_SECONDS).multiply(WEEK_IN_MICRO_SECONDS);
+    }
+
+    private void setPointHistory(BigInteger epoch, Point point) {
+        this.pointHistory.set(epoch, point);
+
+        BigInteger weekStart = getWeekStart(point.getTimestamp());
+        if (this.weekEpochIndex.get(weekStart) == null) {
+            this.weekEpochIndex.set(weekStart, epoch);
+        }
+
+        BigInteger bucket = point.getBlock().divide(BLOCK_EPOCH_INDEX_INTERVAL);
+        if (this.blockEpochIndex.get(bucket) == null) {
+            this.blockEpochIndex.set(bucket, epoch);
+        }
+    }
+
     protected LockedBalance getLockedBalance(Address user) {
         return locked.getOrDefault(user, new LockedBalance());
     }
@@ -305,7 +427,7 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
                 lastPoint.block = blockHeight;
                 break;
             } else {
-                pointHistory.set(epoch, lastPoint);
+                setPointHistory(epoch, lastPoint);
             }
         }
 
@@ -322,7 +444,7 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
             }
         }
 
-        this.pointHistory.set(epoch, lastPoint);
+        setPointHistory(epoch, lastPoint);
 
         if (!address.equals(EOA_ZERO)) {
             if (oldLocked.end.compareTo(blockTimestamp) > 0) {
@@ -433,4 +555,16 @@ public abstract class AbstractBoostedBaln implements BoostedBaln {
         }
     }
 
+    protected void onBalanceUpdateBatch(Address[] users, BigInteger[] newBalances) {
+        try {
+            Context.call(getRewards(), "onBalanceUpdateBatch", users, newBalances);
+        } catch (Exception ignored) {
+        }
+
+        try {
+            Context.call(getDividends(), "onBalanceUpdateBatch", users, newBalances);
+        } catch (Exception ignored) {
+        }
+    }
+
 }
@@ -200,6 +200,17 @@ public class BoostedBalnImpl extends AbstractBoostedBaln {
         }
     }
 
+    @External
+    public void kickBatch(Address[] users) {
+        checkStatus();
+        BigInteger[] balances = new BigInteger[users.length];
+        for (int i = 0; i < users.length; i++) {
+            balances[i] = balanceOf(users[i], BigInteger.ZERO);
+        }
+
+        onBalanceUpdateBatch(users, balances);
+    }
+
     @External
     public void withdraw() {
         checkStatus();
@@ -288,6 +299,16 @@ public class BoostedBalnImpl extends AbstractBoostedBaln {
         }
     }
 
+    @External(readonly = true)
+    public List<BigInteger> balanceOfBatch(Address[] users, @Optional BigInteger timestamp) {
+        List<BigInteger> balances = new ArrayList<>();
+        for (Address user : users) {
+            balances.add(balanceOf(user, timestamp));
+        }
+
+        return balances;
+    }
+
     @External(readonly = true)
     public BigInteger balanceOfAt(Address _owner, BigInteger block) {
         UnsignedBigInteger blockHeight = UnsignedBigInteger.valueOf(Context.getBlockHeight());
@@ -332,10 +353,7 @@ public class BoostedBalnImpl extends AbstractBoostedBaln {
             time = blockTimestamp;
         }
 
-        BigInteger epoch = this.epoch.get();
-        Point lastPoint = this.pointHistory.getOrDefault(epoch, new Point());
-
-        return this.supplyAt(lastPoint, time);
+        return this.supplyAt(time);
     }
 
     @External(readonly = true)
@@ -28,5 +28,10 @@ public class Constants {
     public static final BigInteger DAYS_PER_YEAR = BigInteger.valueOf(365L);
     public static final BigInteger YEAR_IN_MICRO_SECONDS = DAYS_PER_YEAR.multiply(MICRO_SECONDS_IN_A_DAY);
 
+    // Width, in blocks, of the buckets in the block to epoch index (one day at two second blocks)
+    public static final BigInteger BLOCK_EPOCH_INDEX_INTERVAL = BigInteger.valueOf(43_200L);
+    // Buckets checked on either side of a block for the nearest populated bucket
+    public static final int BLOCK_EPOCH_INDEX_SCAN_LIMIT = 7;
+
     public static final UnsignedBigInteger U_WEEK_IN_MICRO_SECONDS = new UnsignedBigInteger(WEEK_IN_MICRO_SECONDS);
 }
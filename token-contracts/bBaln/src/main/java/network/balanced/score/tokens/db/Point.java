@@ -25,6 +25,8 @@ import score.ObjectWriter;
 import java.math.BigInteger;
 
 public class Point {
+    private static final int BLOCK_BITS = 32;
+    private static final BigInteger BLOCK_MASK = BigInteger.ONE.shiftLeft(BLOCK_BITS).subtract(BigInteger.ONE);
 
     public BigInteger bias;
     public BigInteger slope;
@@ -64,18 +66,40 @@ public class Point {
         reader.beginList();
         obj.bias = reader.readBigInteger();
         obj.slope = reader.readBigInteger();
-        obj.timestamp = new UnsignedBigInteger(reader.readBigInteger());
-        obj.block = new UnsignedBigInteger(reader.readBigInteger());
+        BigInteger value = reader.readBigInteger();
+        if (reader.hasNext()) {
+            // Unpacked record: [bias, slope, timestamp, block]
+            obj.timestamp = new UnsignedBigInteger(value);
+            obj.block = new UnsignedBigInteger(reader.readBigInteger());
+        } else {
+            obj.timestamp = new UnsignedBigInteger(value.shiftRight(BLOCK_BITS));
+            obj.block = new UnsignedBigInteger(value.and(BLOCK_MASK));
+        }
         reader.end();
         return obj;
     }
 
+    /**
+     * Writes [bias, slope, timestamp << 32 | block]. This is still an RLP list; merging the two fields only drops one
+     * item header, one byte per point. Points whose block does not fit in 32 bits are written unpacked.
+     */
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(4);
+        BigInteger timestamp = this.timestamp.toBigInteger();
+        BigInteger block = this.block.toBigInteger();
+        if (block.compareTo(BLOCK_MASK) > 0) {
+            writer.beginList(4);
+            writer.write(this.bias);
+            writer.write(this.slope);
+            writer.write(timestamp);
+            writer.write(block);
+            writer.end();
+            return;
+        }
+
+        writer.beginList(3);
         writer.write(this.bias);
         writer.write(this.slope);
-        writer.write(this.timestamp.toBigInteger());
-        writer.write(this.block.toBigInteger());
+        writer.write(timestamp.shiftLeft(BLOCK_BITS).or(block));
         writer.end();
     }
 
@@ -28,6 +28,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import score.Address;
 
 import java.math.BigInteger;
 import java.util.HashMap;
@@ -169,6 +171,27 @@ public class BoostedBALNUnlockTest extends AbstractBoostedBalnTest {
         verify(scoreSpy).onKick(owner.getAddress());
     }
 
+    @Test
+    public void testKickBatch() {
+        long unlockTime = WEEK.longValue() * 2 + sm.getBlock().getTimestamp();
+        Map<String, Object> map = new HashMap<>();
+        map.put("method", "createLock");
+        map.put("params", Map.of("unlockTime", unlockTime));
+        byte[] lockBytes = new JSONObject(map).toString().getBytes();
+        doNothing().when(scoreSpy).onBalanceUpdate(any(), any());
+        doNothing().when(scoreSpy).onBalanceUpdateBatch(any(), any());
+        tokenScore.invoke(owner, "transfer", bBALNScore.getAddress(), ICX, lockBytes);
+
+        sm.getBlock().increase(100);
+        Address[] users = new Address[]{owner.getAddress(), sm.createAccount().getAddress()};
+        bBALNScore.invoke(owner, "kickBatch", (Object) users);
+
+        ArgumentCaptor<BigInteger[]> balances = ArgumentCaptor.forClass(BigInteger[].class);
+        verify(scoreSpy).onBalanceUpdateBatch(eq(users), balances.capture());
+        assertTrue(balances.getValue()[0].compareTo(BigInteger.ZERO) > 0);
+        assertEquals(BigInteger.ZERO, balances.getValue()[1]);
+    }
+
     private static Stream<Arguments> weekListLock() {
 
         long low = WEEK.longValue() * 2;
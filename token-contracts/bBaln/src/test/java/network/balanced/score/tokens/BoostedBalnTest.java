@@ -24,13 +24,17 @@ import com.iconloop.score.token.irc2.IRC2Basic;
 import network.balanced.score.lib.test.mock.MockBalanced;
 import network.balanced.score.lib.utils.BalancedAddressManager;
 import network.balanced.score.lib.utils.Names;
+import network.balanced.score.tokens.db.Point;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import score.ByteArrayObjectWriter;
 import score.Context;
 
 import java.math.BigInteger;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.spy;
 
 class BoostedBalnTest extends AbstractBoostedBalnTest {
@@ -83,4 +87,33 @@ class BoostedBalnTest extends AbstractBoostedBalnTest {
     void totalSupply() {
         assertEquals(BigInteger.ZERO, bBalnScore.call("totalSupply", BigInteger.ZERO));
     }
+
+    @Test
+    void pointEncoding() {
+        BigInteger bias = BigInteger.TEN.pow(24);
+        BigInteger slope = BigInteger.valueOf(7_927_447L);
+        BigInteger timestamp = BigInteger.valueOf(1_700_000_000_000_000L);
+        BigInteger block = BigInteger.valueOf(75_000_000L);
+
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(4);
+        writer.write(bias);
+        writer.write(slope);
+        writer.write(timestamp);
+        writer.write(block);
+        writer.end();
+        byte[] legacy = writer.toByteArray();
+
+        Point point = new Point(bias, slope, timestamp, block);
+        byte[] packed = point.toBytes();
+        assertTrue(packed.length < legacy.length);
+
+        for (byte[] bytes : List.of(legacy, packed)) {
+            Point decoded = Point.fromBytes(bytes);
+            assertEquals(bias, decoded.bias);
+            assertEquals(slope, decoded.slope);
+            assertEquals(timestamp, decoded.getTimestamp());
+            assertEquals(block, decoded.getBlock());
+        }
+    }
 }
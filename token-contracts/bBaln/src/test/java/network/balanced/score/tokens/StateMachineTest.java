@@ -24,10 +24,12 @@ import org.junit.jupiter.api.function.Executable;
 
 import network.balanced.score.lib.test.mock.MockBalanced;
 import network.balanced.score.lib.utils.BalancedAddressManager;
+import score.Address;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -246,6 +248,22 @@ public class StateMachineTest extends AbstractBoostedBalnTest {
                 createLock(account, value, unlockTime);
             }
         }
+
+        @DisplayName("Batch balance matches individual balances")
+        @Test
+        void balanceOfBatch() {
+            Address[] users = new Address[accounts.size()];
+            for (int i = 0; i < accounts.size(); i++) {
+                createLock(accounts.get(i), value.multiply(BigInteger.valueOf(i + 1)), unlockTime);
+                users[i] = accounts.get(i).getAddress();
+            }
+
+            @SuppressWarnings("unchecked")
+            List<BigInteger> balances = (List<BigInteger>) bBalnScore.call("balanceOfBatch", users, BigInteger.ZERO);
+            for (int i = 0; i < users.length; i++) {
+                assertEquals(bBalnScore.call("balanceOf", users[i], BigInteger.ZERO), balances.get(i));
+            }
+        }
     }
 
     @DisplayName("Increase Amount")
@@ -472,6 +490,68 @@ public class StateMachineTest extends AbstractBoostedBalnTest {
         }
     }
 
+    @DisplayName("Historical total supply")
+    @Test
+    void historicalTotalSupply() {
+        BigInteger value = BigInteger.TEN.pow(20);
+        createLock(accounts.get(0), value, addWeeksToCurrentTimestamp(10));
+        createLock(accounts.get(1), value, addWeeksToCurrentTimestamp(20));
+
+        BigInteger time = BigInteger.valueOf(sm.getBlock().getTimestamp());
+        BigInteger laterTime = time.add(BigInteger.valueOf(WEEK * 2));
+        BigInteger supply = (BigInteger) bBalnScore.call("totalSupply", time);
+        BigInteger laterSupply = BigInteger.ZERO;
+        for (int i = 0; i < 2; i++) {
+            laterSupply = laterSupply.add((BigInteger) bBalnScore.call("balanceOf", accounts.get(i).getAddress(),
+                    laterTime));
+        }
+
+        sm.getBlock().increase(WEEK * 3 / BLOCK_TIME);
+        increaseAmount(accounts.get(1), value);
+        createLock(accounts.get(2), value, addWeeksToCurrentTimestamp(8));
+
+        assertEquals(supply, bBalnScore.call("totalSupply", time));
+        assertEquals(laterSupply, bBalnScore.call("totalSupply", laterTime));
+    }
+
+    @DisplayName("Historical total supply at block")
+    @Test
+    void historicalTotalSupplyAt() {
+        long day = 86400L * 1000000L / BLOCK_TIME;
+        BigInteger value = BigInteger.TEN.pow(20);
+        List<BigInteger> blocks = new ArrayList<>();
+        List<BigInteger> supplies = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            createLock(accounts.get(i), value, addWeeksToCurrentTimestamp(10));
+            sm.getBlock().increase(day / 3);
+            BigInteger block = BigInteger.valueOf(sm.getBlock().getHeight() - 1);
+            blocks.add(block);
+            supplies.add((BigInteger) bBalnScore.call("totalSupplyAt", block));
+            sm.getBlock().increase(day);
+        }
+
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(supplies.get(i), bBalnScore.call("totalSupplyAt", blocks.get(i)));
+        }
+    }
+
+    @DisplayName("Historical total supply at block across quiet days")
+    @Test
+    void historicalTotalSupplyAtAcrossQuietDays() {
+        long day = 86400L * 1000000L / BLOCK_TIME;
+        BigInteger value = BigInteger.TEN.pow(20);
+        createLock(accounts.get(0), value, addWeeksToCurrentTimestamp(10));
+        sm.getBlock().increase(day / 3);
+        BigInteger quietBlock = BigInteger.valueOf(sm.getBlock().getHeight() - 1);
+        BigInteger quietSupply = (BigInteger) bBalnScore.call("totalSupplyAt", quietBlock);
+
+        sm.getBlock().increase(3 * day);
+        createLock(accounts.get(1), value, addWeeksToCurrentTimestamp(10));
+        sm.getBlock().increase(day / 3);
+
+        assertEquals(quietSupply, bBalnScore.call("totalSupplyAt", quietBlock));
+    }
+
     @DisplayName("Advance Clock")
     @Test
     void advanceClock() {